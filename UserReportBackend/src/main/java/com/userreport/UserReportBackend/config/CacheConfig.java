@@ -0,0 +1,37 @@
+package com.userreport.UserReportBackend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Caches are created from spring.cache.* in application.properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BRANCHES_BY_ID = "branchesById";
+    public static final String BRANCHES_BY_NAME = "branchesByName";
+    public static final String BRANCHES = "branches";
+    public static final String BRANCHES_BY_REGION = "branchesByRegion";
+    public static final String REGIONS_BY_ID = "regionsById";
+    public static final String REGIONS_BY_NAME = "regionsByName";
+    public static final String REGIONS = "regions";
+    public static final String PRINCIPALS = "principals";
+
+    // Authenticated users get their own, much shorter TTL than the reference data
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> principalCacheCustomizer(
+            @Value("${security.principal-cache.ttl:60s}") Duration ttl,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        return cacheManager -> cacheManager.registerCustomCache(PRINCIPALS, Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build());
+    }
+}
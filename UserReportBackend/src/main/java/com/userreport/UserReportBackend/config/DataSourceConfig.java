@@ -0,0 +1,33 @@
+package com.userreport.UserReportBackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Production pool sizing, the rest of the pool and driver settings live in application-prod.properties
+@Slf4j
+@Configuration
+@Profile("prod")
+public class DataSourceConfig {
+
+    // Fixed-size pool of cores * 2 + 1 connections (HikariCP's pool sizing guideline) unless db.pool.size is set
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(@Value("${db.pool.size:0}") int configuredSize) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int poolSize = configuredSize > 0 ? configuredSize : Runtime.getRuntime().availableProcessors() * 2 + 1;
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                    log.info("Connection pool {} sized to {} connections", dataSource.getPoolName(), poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.userreport.UserReportBackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Slf4j
+@Configuration
+public class ReportConfig {
+
+    // Dedicated pool for splitting large report aggregations, kept off the common pool.
+    // One worker per core unless report.parallelism is set.
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool reportPool(@Value("${report.parallelism:0}") int configuredParallelism) {
+        int parallelism = configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Report pool sized to {} workers", parallelism);
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -0,0 +1,30 @@
+package com.userreport.UserReportBackend.config;
+
+import com.userreport.UserReportBackend.repository.BranchPerformanceRepo;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class RollupConfig {
+
+    // Backfill the performance rollup on startup when it is empty or a rebuild is requested,
+    // then load it into the in-memory snapshot used by the dashboard and performance reads
+    @Bean
+    public ApplicationRunner rollupBackfillRunner(BranchPerformanceService branchPerformanceService,
+                                                  BranchPerformanceRepo branchPerformanceRepo,
+                                                  @Value("${rollup.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        return args -> {
+            if (rebuildOnStartup || branchPerformanceRepo.count() == 0) {
+                int rows = branchPerformanceService.rebuildAll();
+                log.info("Performance rollup rebuilt with {} rows", rows);
+            }
+            int snapshotRows = branchPerformanceService.loadSnapshot();
+            log.info("Performance snapshot loaded with {} rows", snapshotRows);
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.userreport.UserReportBackend.controller;
+
+import com.userreport.UserReportBackend.dto.performance.BranchPerformanceDTO;
+import com.userreport.UserReportBackend.dto.performance.RollupConsistencyReportDTO;
+import com.userreport.UserReportBackend.dto.performance.VarianceReportDTO;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+
+@RestController
+@RequestMapping("/api/v1/performance")
+public class BranchPerformanceController {
+
+    private final BranchPerformanceService branchPerformanceService;
+
+    public BranchPerformanceController(BranchPerformanceService branchPerformanceService) {
+        this.branchPerformanceService = branchPerformanceService;
+    }
+
+    @GetMapping("/year/{year}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BranchPerformanceDTO>> getPerformanceByYear(@PathVariable Integer year) {
+        List<BranchPerformanceDTO> performance = branchPerformanceService.getPerformanceByYear(year);
+        return ResponseEntity.ok(performance);
+    }
+
+    @GetMapping("/region/{regionId}/year/{year}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BranchPerformanceDTO>> getPerformanceByRegionIdAndYear(@PathVariable Long regionId,
+                                                                                      @PathVariable Integer year) {
+        List<BranchPerformanceDTO> performance = branchPerformanceService.getPerformanceByRegionIdAndYear(regionId, year);
+        return ResponseEntity.ok(performance);
+    }
+
+    // Target against collection per branch and month, optionally for a single month (?month=)
+    @GetMapping("/variance/year/{year}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<VarianceReportDTO>> getVarianceReport(@PathVariable Integer year,
+                                                                     @RequestParam(required = false) Integer month) {
+        List<VarianceReportDTO> report = branchPerformanceService.getVarianceReport(null, year, month);
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/variance/region/{regionId}/year/{year}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<VarianceReportDTO>> getVarianceReportByRegion(@PathVariable Long regionId,
+                                                                             @PathVariable Integer year,
+                                                                             @RequestParam(required = false) Integer month) {
+        List<VarianceReportDTO> report = branchPerformanceService.getVarianceReport(regionId, year, month);
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> rebuildRollup() {
+        int rows = branchPerformanceService.rebuildAll();
+        return ResponseEntity.ok("Performance rollup rebuilt with " + rows + " rows");
+    }
+
+    @GetMapping("/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RollupConsistencyReportDTO> checkRollup() {
+        RollupConsistencyReportDTO report = branchPerformanceService.checkConsistency();
+        return ResponseEntity.ok(report);
+    }
+}
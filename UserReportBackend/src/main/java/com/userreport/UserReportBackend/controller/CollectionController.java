@@ -1,5 +1,6 @@
 package com.userreport.UserReportBackend.controller;
 
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
 import com.userreport.UserReportBackend.dto.collection.*;
 import com.userreport.UserReportBackend.entity.CollectionEntity;
 import com.userreport.UserReportBackend.services.CollectionService;
@@ -10,7 +11,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 
 @RestController
@@ -78,22 +78,16 @@ public class CollectionController {
 
     @GetMapping("/all")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getAllCollections() {
-        List<CollectionResponseDTO> collections = collectionService.getAllCollectionResponses();
-        if (collections.isEmpty()) {
-            return ResponseEntity.ok("No collections found");
-        }
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getAllCollections(@RequestParam(required = false) Long after,
+                                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, null, null, null, null, after, size));
     }
 
     @GetMapping("/responses")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getAllCollectionResponses() {
-        List<CollectionResponseDTO> collections = collectionService.getAllCollectionResponses();
-        if (collections.isEmpty()) {
-            return ResponseEntity.ok("No collections found");
-        }
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getAllCollectionResponses(@RequestParam(required = false) Long after,
+                                                                                          @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, null, null, null, null, after, size));
     }
 
     @GetMapping("/getCollectionById/{id}")
@@ -121,56 +115,75 @@ public class CollectionController {
 
     @GetMapping("/branch/{branchId}/year/{year}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByBranchIdAndYear(@PathVariable Long branchId,
-                                                                                  @PathVariable Integer year) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByBranchIdAndYear(branchId, year);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByBranchIdAndYear(@PathVariable Long branchId,
+                                                                                                @PathVariable Integer year,
+                                                                                                @RequestParam(required = false) Long after,
+                                                                                                @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(branchId, null, year, null, null, after, size));
     }
 
     @GetMapping("/getCollectionsByRegionId/{regionId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByRegionId(@PathVariable Long regionId) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByRegionId(regionId);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByRegionId(@PathVariable Long regionId,
+                                                                                         @RequestParam(required = false) Long after,
+                                                                                         @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, regionId, null, null, null, after, size));
     }
 
     @GetMapping("/region/{regionId}/year/{year}/month/{month}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByRegionIdAndYearMonth(@PathVariable Long regionId,
-                                                                                       @PathVariable Integer year,
-                                                                                       @PathVariable Integer month) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByRegionIdAndYearMonth(regionId, year, month);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByRegionIdAndYearMonth(@PathVariable Long regionId,
+                                                                                                     @PathVariable Integer year,
+                                                                                                     @PathVariable Integer month,
+                                                                                                     @RequestParam(required = false) Long after,
+                                                                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, regionId, year, month, null, after, size));
     }
 
     @GetMapping("/region/{regionId}/year/{year}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByRegionIdAndYear(@PathVariable Long regionId,
-                                                                                            @PathVariable Integer year) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByRegionIdAndYear(regionId, year);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByRegionIdAndYear(@PathVariable Long regionId,
+                                                                                                @PathVariable Integer year,
+                                                                                                @RequestParam(required = false) Long after,
+                                                                                                @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, regionId, year, null, null, after, size));
     }
 
     @GetMapping("/getCollectionsByPercentageThreshold/{threshold}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByPercentageThreshold(@PathVariable BigDecimal threshold) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByPercentageThreshold(threshold);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByPercentageThreshold(@PathVariable BigDecimal threshold,
+                                                                                                    @RequestParam(required = false) Long after,
+                                                                                                    @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, null, null, null, threshold, after, size));
     }
 
     @GetMapping("/year/{year}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByYear(@PathVariable Integer year) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByYear(year);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByYear(@PathVariable Integer year,
+                                                                                     @RequestParam(required = false) Long after,
+                                                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, null, year, null, null, after, size));
     }
 
     @GetMapping("/year/{year}/month/{month}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<CollectionResponseDTO>> getCollectionsByYearAndMonth(@PathVariable Integer year,
-                                                                               @PathVariable Integer month) {
-        List<CollectionResponseDTO> collections = collectionService.getCollectionResponsesByYearAndMonth(year, month);
-        return ResponseEntity.ok(collections);
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByYearAndMonth(@PathVariable Integer year,
+                                                                                             @PathVariable Integer month,
+                                                                                             @RequestParam(required = false) Long after,
+                                                                                             @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePage(null, null, year, month, null, after, size));
+    }
+
+    // e.g. ?below=true&threshold=80 lists the branches under 80% that month, paged with after/size
+    @GetMapping("/year/{year}/month/{month}/percentage")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageDTO<CollectionResponseDTO>> getCollectionsByYearMonthAndPercentage(@PathVariable Integer year,
+                                                                                                       @PathVariable Integer month,
+                                                                                                       @RequestParam BigDecimal threshold,
+                                                                                                       @RequestParam(defaultValue = "false") boolean below,
+                                                                                                       @RequestParam(required = false) Long after,
+                                                                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(collectionService.getCollectionResponsePageByPercentage(year, month, threshold, below, after, size));
     }
 
     @GetMapping("/region/{regionId}/total/year/{year}/month/{month}")
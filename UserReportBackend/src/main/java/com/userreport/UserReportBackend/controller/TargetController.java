@@ -1,5 +1,6 @@
 package com.userreport.UserReportBackend.controller;
 
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
 import com.userreport.UserReportBackend.dto.target.*;
 import com.userreport.UserReportBackend.entity.TargetEntity;
 import com.userreport.UserReportBackend.services.TargetService;
@@ -10,7 +11,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 
 @RestController
@@ -81,12 +81,9 @@ public class TargetController {
 
     @GetMapping("/all")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getAllTargets() {
-        List<TargetResponseDTO> targets = targetService.getAllTargetResponses();
-        if (targets.isEmpty()) {
-            return ResponseEntity.ok("No targets found");
-        }
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getAllTargets(@RequestParam(required = false) Long after,
+                                                                          @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(null, null, null, null, null, after, size));
     }
 
     @GetMapping("/targetById/{id}")
@@ -114,48 +111,54 @@ public class TargetController {
 
     @GetMapping("/branch/{branchId}/year/{year}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TargetResponseDTO>> getTargetsByBranchIdAndYear(@PathVariable Long branchId,
-                                                                          @PathVariable Integer year) {
-        List<TargetResponseDTO> targets = targetService.getTargetResponsesByBranchIdAndYear(branchId, year);
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getTargetsByBranchIdAndYear(@PathVariable Long branchId,
+                                                                                        @PathVariable Integer year,
+                                                                                        @RequestParam(required = false) Long after,
+                                                                                        @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(branchId, null, year, null, null, after, size));
     }
 
     @GetMapping("/region/{regionId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TargetResponseDTO>> getTargetsByRegionId(@PathVariable Long regionId) {
-        List<TargetResponseDTO> targets = targetService.getTargetResponsesByRegionId(regionId);
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getTargetsByRegionId(@PathVariable Long regionId,
+                                                                                 @RequestParam(required = false) Long after,
+                                                                                 @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(null, regionId, null, null, null, after, size));
     }
 
     @GetMapping("/region/{regionId}/year/{year}/month/{month}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TargetResponseDTO>> getTargetsByRegionIdAndYearMonth(@PathVariable Long regionId,
-                                                                               @PathVariable Integer year,
-                                                                               @PathVariable Integer month) {
-        List<TargetResponseDTO> targets = targetService.getTargetResponsesByRegionIdAndYearMonth(regionId, year, month);
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getTargetsByRegionIdAndYearMonth(@PathVariable Long regionId,
+                                                                                             @PathVariable Integer year,
+                                                                                             @PathVariable Integer month,
+                                                                                             @RequestParam(required = false) Long after,
+                                                                                             @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(null, regionId, year, month, null, after, size));
     }
 
     @GetMapping("/minimum/{amount}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TargetResponseDTO>> getTargetsByMinimumAmount(@PathVariable BigDecimal amount) {
-        List<TargetResponseDTO> targets = targetService.getTargetResponsesByMinimumAmount(amount);
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getTargetsByMinimumAmount(@PathVariable BigDecimal amount,
+                                                                                      @RequestParam(required = false) Long after,
+                                                                                      @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(null, null, null, null, amount, after, size));
     }
 
     @GetMapping("/year/{year}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TargetResponseDTO>> getTargetsByYear(@PathVariable Integer year) {
-        List<TargetResponseDTO> targets = targetService.getTargetResponsesByYear(year);
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getTargetsByYear(@PathVariable Integer year,
+                                                                             @RequestParam(required = false) Long after,
+                                                                             @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(null, null, year, null, null, after, size));
     }
 
     @GetMapping("/year/{year}/month/{month}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TargetResponseDTO>> getTargetsByYearAndMonth(@PathVariable Integer year,
-                                                                       @PathVariable Integer month) {
-        List<TargetResponseDTO> targets = targetService.getTargetResponsesByYearAndMonth(year, month);
-        return ResponseEntity.ok(targets);
+    public ResponseEntity<CursorPageDTO<TargetResponseDTO>> getTargetsByYearAndMonth(@PathVariable Integer year,
+                                                                                     @PathVariable Integer month,
+                                                                                     @RequestParam(required = false) Long after,
+                                                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(targetService.getTargetResponsePage(null, null, year, month, null, after, size));
     }
 
     @GetMapping("/region/{regionId}/total")
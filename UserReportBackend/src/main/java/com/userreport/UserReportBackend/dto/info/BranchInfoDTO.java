@@ -0,0 +1,17 @@
+package com.userreport.UserReportBackend.dto.info;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BranchInfoDTO {
+    private Long id;
+    private String brnName;
+    private String brnDes;
+    private Long regionId;
+    private String rgnName;
+    private String rgnDes;
+}
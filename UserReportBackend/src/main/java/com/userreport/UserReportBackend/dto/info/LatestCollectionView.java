@@ -0,0 +1,16 @@
+package com.userreport.UserReportBackend.dto.info;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Most recent collection of a branch, as returned by the window-function query in CollectionRepo
+public interface LatestCollectionView {
+    Long getBranchId();
+    Long getId();
+    BigDecimal getTarget();
+    BigDecimal getDue();
+    BigDecimal getCollectionAmount();
+    BigDecimal getPercentage();
+    LocalDateTime getCreatedDatetime();
+    LocalDateTime getModifyDatetime();
+}
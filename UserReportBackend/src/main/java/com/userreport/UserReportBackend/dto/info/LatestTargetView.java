@@ -0,0 +1,13 @@
+package com.userreport.UserReportBackend.dto.info;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Most recent target of a branch, as returned by the window-function query in TargetRepo
+public interface LatestTargetView {
+    Long getBranchId();
+    Long getId();
+    BigDecimal getTarget();
+    LocalDateTime getCreatedDatetime();
+    LocalDateTime getModifyDatetime();
+}
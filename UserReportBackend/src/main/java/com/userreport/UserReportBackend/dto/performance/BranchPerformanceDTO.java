@@ -0,0 +1,23 @@
+package com.userreport.UserReportBackend.dto.performance;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BranchPerformanceDTO {
+    private Long branchId;
+    private String branchName;
+    private Long regionId;
+    private String regionName;
+    private Integer year;
+    private Integer month;
+    private BigDecimal target;
+    private BigDecimal collection;
+    private BigDecimal due;
+    private BigDecimal percentage;
+}
@@ -0,0 +1,6 @@
+package com.userreport.UserReportBackend.dto.performance;
+
+// Projection of a stored rollup row together with its region, loaded into the in-memory snapshot
+public interface PerformanceSnapshotRowView extends RollupRowView {
+    Long getRegionId();
+}
@@ -0,0 +1,17 @@
+package com.userreport.UserReportBackend.dto.performance;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupConsistencyReportDTO {
+    private int expectedRows;
+    private int rollupRows;
+    private boolean consistent;
+    private List<String> mismatches;
+}
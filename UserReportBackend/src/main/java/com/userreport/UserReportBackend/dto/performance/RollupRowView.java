@@ -0,0 +1,12 @@
+package com.userreport.UserReportBackend.dto.performance;
+
+import java.math.BigDecimal;
+
+// Projection of a branch/month rollup row as computed from sdb_target and sdb_collection
+public interface RollupRowView {
+    Long getBranchId();
+    Integer getYear();
+    Integer getMonth();
+    BigDecimal getTarget();
+    BigDecimal getCollection();
+}
@@ -0,0 +1,25 @@
+package com.userreport.UserReportBackend.dto.performance;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Target against collection of one branch and month, the target is the live sdb_target value
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VarianceReportDTO {
+    private Long branchId;
+    private String branchName;
+    private Long regionId;
+    private String regionName;
+    private Integer year;
+    private Integer month;
+    private BigDecimal target;
+    private BigDecimal collection;
+    private BigDecimal due;
+    private BigDecimal achievement;
+    private Boolean collectionMissing;
+}
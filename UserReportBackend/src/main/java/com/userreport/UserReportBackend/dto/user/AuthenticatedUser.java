@@ -0,0 +1,21 @@
+package com.userreport.UserReportBackend.dto.user;
+
+import com.userreport.UserReportBackend.entity.Role;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+// Principal set by JWTFilter, carries the user id so services don't look the user up again
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final Long branchId;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,57 @@
+package com.userreport.UserReportBackend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Rollup of target and collection per branch and month, kept current by the write paths
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "sdb_branch_performance", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_branch_performance_branch_year_month",
+                columnNames = {"sdb_branch_id", "perf_year", "perf_month"})
+})
+public class BranchPerformanceEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sdb_branch_id", nullable = false)
+    @JsonIgnore
+    private BranchEntity branch;
+
+    // Denormalised from the branch so region reports do not need to join through sdb_branch
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "mkt_sdb_region_id", nullable = false)
+    @JsonIgnore
+    private RegionEntity region;
+
+    @Column(name = "perf_year", nullable = false)
+    private Integer perfYear;
+
+    @Column(name = "perf_month", nullable = false)
+    private Integer perfMonth; // 1-12 for Jan-Dec
+
+    @Column(name = "target", precision = 12, scale = 2, nullable = false)
+    private BigDecimal target;
+
+    @Column(name = "collection", precision = 12, scale = 2, nullable = false)
+    private BigDecimal collection;
+
+    @Column(name = "due", precision = 12, scale = 2, nullable = false)
+    private BigDecimal due;
+
+    @Column(name = "percentage", precision = 7, scale = 2, nullable = false)
+    private BigDecimal percentage;
+
+    @Column(name = "refreshed_datetime")
+    private LocalDateTime refreshedDatetime;
+}
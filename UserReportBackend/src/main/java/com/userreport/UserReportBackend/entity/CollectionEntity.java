@@ -9,14 +9,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
+// Partitioned by year (V4 migration), which is why the associations have no foreign key constraints
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "sdb_collection")
+@Table(name = "sdb_collection", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_collection_branch_year_month", columnNames = {"sdb_branch_id", "collection_year", "collection_month"})
+}, indexes = {
+        @Index(name = "idx_collection_year_month_percentage", columnList = "collection_year, collection_month, percentage")
+})
 public class CollectionEntity {
+    // Largest value of the DECIMAL(7,2) percentage column, also the cap of the rollup percentage
+    public static final BigDecimal MAX_PERCENTAGE = new BigDecimal("99999.99");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,7 +39,7 @@ public class CollectionEntity {
     @Column(name = "collection", precision = 10, scale = 2)
     private BigDecimal collectionAmount;
 
-    @Column(name = "percentage", precision = 5, scale = 2)
+    @Column(name = "percentage", precision = 7, scale = 2)
     private BigDecimal percentage;
 
     // New fields for time period
@@ -42,13 +51,13 @@ public class CollectionEntity {
 
     // Changed from One-to-One to Many-to-One: Many collections can belong to one Branch
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "sdb_branch_id", nullable = false)
+    @JoinColumn(name = "sdb_branch_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private BranchEntity branch;
 
     // Audit Fields
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "created_by", nullable = false)
+    @JoinColumn(name = "created_by", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private  UserEntity createdBy;
 
@@ -56,7 +65,7 @@ public class CollectionEntity {
     private LocalDateTime createdDatetime;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "modify_by")
+    @JoinColumn(name = "modify_by", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private UserEntity modifyBy;
 
@@ -64,23 +73,30 @@ public class CollectionEntity {
     private LocalDateTime modifyDatetime;
 
     // Constructor for creating a new collection
-    public CollectionEntity(BigDecimal target, BigDecimal due, BigDecimal collectionAmount,
+    public CollectionEntity(BigDecimal target, BigDecimal collectionAmount,
                             Integer collectionYear, Integer collectionMonth,
                             BranchEntity branch, UserEntity createdBy) {
-        this.target = target;
-        this.due = due;
-        this.collectionAmount = collectionAmount;
+        applyAmounts(target, collectionAmount);
         this.collectionYear = collectionYear;
         this.collectionMonth = collectionMonth;
         this.branch = branch;
         this.createdBy = createdBy;
         this.createdDatetime = LocalDateTime.now();
+    }
 
-        // Calculate percentage if target is not zero
-        if (target != null && target.compareTo(BigDecimal.ZERO) > 0) {
-            this.percentage = collectionAmount.divide(target, 4, BigDecimal.ROUND_HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-        }
+    // The only place due and percentage are derived, every write path sets the amounts through here.
+    // Due is target minus collection (negative when over-collected or without a target, as in the rollup),
+    // percentage is collection * 100 / target rounded HALF_UP to the column scale, zero without a target
+    // and capped at what DECIMAL(7,2) holds.
+    public void applyAmounts(BigDecimal target, BigDecimal collectionAmount) {
+        BigDecimal targetAmount = (target == null) ? BigDecimal.ZERO : target;
+        BigDecimal collected = (collectionAmount == null) ? BigDecimal.ZERO : collectionAmount;
+        this.target = targetAmount;
+        this.collectionAmount = collectionAmount;
+        this.due = targetAmount.subtract(collected);
+        this.percentage = (targetAmount.signum() > 0)
+                ? collected.multiply(BigDecimal.valueOf(100)).divide(targetAmount, 2, RoundingMode.HALF_UP).min(MAX_PERCENTAGE)
+                : BigDecimal.ZERO;
     }
 
 
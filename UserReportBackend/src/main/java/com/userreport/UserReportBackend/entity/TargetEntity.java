@@ -11,11 +11,16 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Partitioned by year (V4 migration), which is why the associations have no foreign key constraints
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "sdb_target")
+@Table(name = "sdb_target", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_target_branch_year_month", columnNames = {"sdb_branch_id", "target_year", "target_month"})
+}, indexes = {
+        @Index(name = "idx_target_year_month", columnList = "target_year, target_month")
+})
 public class TargetEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,13 +38,13 @@ public class TargetEntity {
 
     // Changed from One-to-One to Many-to-One: Many targets can belong to one Branch
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "sdb_branch_id", nullable = false)
+    @JoinColumn(name = "sdb_branch_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private BranchEntity branch;
 
     // Audit Fields
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "created_by", nullable = false)
+    @JoinColumn(name = "created_by", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private UserEntity createdBy;
 
@@ -47,7 +52,7 @@ public class TargetEntity {
     private LocalDateTime createdDatetime;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "modify_by")
+    @JoinColumn(name = "modify_by", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private UserEntity modifyBy;
 
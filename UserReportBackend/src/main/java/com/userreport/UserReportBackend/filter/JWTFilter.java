@@ -1,8 +1,12 @@
 package com.userreport.UserReportBackend.filter;
 
-import com.userreport.UserReportBackend.entity.UserEntity;
-import com.userreport.UserReportBackend.repository.UserRepo;
+import com.userreport.UserReportBackend.dto.user.AuthenticatedUser;
+import com.userreport.UserReportBackend.entity.Role;
+import com.userreport.UserReportBackend.services.AuthenticatedUserService;
 import com.userreport.UserReportBackend.services.JWTservice;
+import com.userreport.UserReportBackend.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import jakarta.annotation.Nonnull;
@@ -11,24 +15,29 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
 
 import java.io.IOException;
+import java.util.List;
 
 
 @Component
 public class JWTFilter extends OncePerRequestFilter {
 
     private final JWTservice jwtservice;
-    private final UserRepo userRepo;
+    private final AuthenticatedUserService authenticatedUserService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuth;
 
-    public JWTFilter(JWTservice jwtservice, UserRepo userRepo) {
+    public JWTFilter(JWTservice jwtservice, AuthenticatedUserService authenticatedUserService, TokenRevocationService tokenRevocationService,
+                     @Value("${security.jwt.stateless-auth:false}") boolean statelessAuth) {
         this.jwtservice = jwtservice;
-        this.userRepo = userRepo;
+        this.authenticatedUserService = authenticatedUserService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuth = statelessAuth;
     }
 
 
@@ -44,39 +53,32 @@ public class JWTFilter extends OncePerRequestFilter {
         }
 
         String jwt_token = authorization.substring(7);
-        String userName = jwtservice.getUserName(jwt_token);
+        Claims claims = jwtservice.getTokenData(jwt_token);
+        String userName = claims != null ? claims.getSubject() : null;
 
         if (userName == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        UserEntity userData = userRepo.findByUsername(userName).orElse(null);
-
-        if (userData == null) {
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+        AuthenticatedUser user = statelessAuth ? userFromClaims(claims) : authenticatedUserService.loadByUsername(userName);
+
+        if (user == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // Create user details with authorities
-        String authority = "ROLE_" + userData.getRole().name();
-        System.out.println("Creating user details for: " + userData.getUsername() + " with authority: " + authority);
-
-        UserDetails user = User.builder()
-                .username(userData.getUsername())
-                .password(userData.getPassword())
-                .authorities(authority)
-                .build();
-
+        // The principal carries the user id, services read it instead of querying the user again
+        String authority = "ROLE_" + user.getRole().name();
         UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
                 user,
                 null,
-                user.getAuthorities()
+                List.of(new SimpleGrantedAuthority(authority))
         );
 
         token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -85,4 +87,29 @@ public class JWTFilter extends OncePerRequestFilter {
         System.out.println("JWT Token processed for user: " + userName);
         filterChain.doFilter(request, response);
     }
+
+    // Stateless mode: the verified token is trusted as long as its version has not been revoked
+    private AuthenticatedUser userFromClaims(Claims claims) {
+        String userName = claims.getSubject();
+        Long userId = claims.get("userId", Long.class);
+        Long version = claims.get("ver", Long.class);
+        String role = claims.get("role", String.class);
+
+        // Tokens issued before these claims existed still go through the principal cache
+        if (userId == null || version == null || role == null) {
+            return authenticatedUserService.loadByUsername(userName);
+        }
+        if (tokenRevocationService.isCurrent(userId, version)) {
+            return new AuthenticatedUser(userId, userName, Role.valueOf(role), claims.get("branchId", Long.class));
+        }
+        // Revocations are only kept in memory, so tokens from before a restart are checked against the user instead
+        if (tokenRevocationService.isIssuedBeforeStartup(version)) {
+            AuthenticatedUser user = authenticatedUserService.loadByUsername(userName);
+            if (user != null && user.getId().equals(userId) && user.getRole().name().equals(role)) {
+                return user;
+            }
+        }
+        System.out.println("Rejected revoked JWT token for user: " + userName);
+        return null;
+    }
 }
@@ -0,0 +1,126 @@
+package com.userreport.UserReportBackend.repository;
+
+import com.userreport.UserReportBackend.dto.performance.PerformanceSnapshotRowView;
+import com.userreport.UserReportBackend.dto.performance.RollupRowView;
+import com.userreport.UserReportBackend.entity.BranchPerformanceEntity;
+import com.userreport.UserReportBackend.entity.RegionEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BranchPerformanceRepo extends JpaRepository<BranchPerformanceEntity, Long> {
+
+    // Rollup rows as they should be, computed from sdb_target and sdb_collection.
+    // A null year or month means no filter on that column.
+    String ROLLUP_ROWS = "SELECT k.branch_id AS branchId, k.y AS year, k.m AS month, " +
+            "COALESCE(t.total, 0) AS target, COALESCE(c.total, 0) AS collection " +
+            "FROM (SELECT sdb_branch_id AS branch_id, target_year AS y, target_month AS m FROM sdb_target " +
+            "      WHERE (:year IS NULL OR target_year = :year) AND (:month IS NULL OR target_month = :month) " +
+            "      UNION " +
+            "      SELECT sdb_branch_id, collection_year, collection_month FROM sdb_collection " +
+            "      WHERE (:year IS NULL OR collection_year = :year) AND (:month IS NULL OR collection_month = :month)) k " +
+            "LEFT JOIN (SELECT sdb_branch_id, target_year AS y, target_month AS m, SUM(target) AS total FROM sdb_target " +
+            "           WHERE (:year IS NULL OR target_year = :year) AND (:month IS NULL OR target_month = :month) " +
+            "           GROUP BY sdb_branch_id, target_year, target_month) t " +
+            "       ON t.sdb_branch_id = k.branch_id AND t.y = k.y AND t.m = k.m " +
+            "LEFT JOIN (SELECT sdb_branch_id, collection_year AS y, collection_month AS m, SUM(collection) AS total FROM sdb_collection " +
+            "           WHERE (:year IS NULL OR collection_year = :year) AND (:month IS NULL OR collection_month = :month) " +
+            "           GROUP BY sdb_branch_id, collection_year, collection_month) c " +
+            "       ON c.sdb_branch_id = k.branch_id AND c.y = k.y AND c.m = k.m";
+
+    // Stored rollup rows with their branch and region ids (in-memory snapshot), a null year or month is not filtered on.
+    // The snapshot reads are locking reads, so they see the latest committed rows and wait for uncommitted changes.
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p.branch.id AS branchId, p.region.id AS regionId, p.perfYear AS year, p.perfMonth AS month, " +
+            "p.target AS target, p.collection AS collection FROM BranchPerformanceEntity p " +
+            "WHERE (:year IS NULL OR p.perfYear = :year) AND (:month IS NULL OR p.perfMonth = :month)")
+    List<PerformanceSnapshotRowView> findSnapshotRows(@Param("year") Integer year, @Param("month") Integer month);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p.branch.id AS branchId, p.region.id AS regionId, p.perfYear AS year, p.perfMonth AS month, " +
+            "p.target AS target, p.collection AS collection FROM BranchPerformanceEntity p WHERE p.branch.id = :branchId")
+    List<PerformanceSnapshotRowView> findSnapshotRowsByBranchId(@Param("branchId") Long branchId);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p.branch.id AS branchId, p.region.id AS regionId, p.perfYear AS year, p.perfMonth AS month, " +
+            "p.target AS target, p.collection AS collection FROM BranchPerformanceEntity p " +
+            "WHERE p.branch.id = :branchId AND p.perfYear = :year AND p.perfMonth = :month")
+    Optional<PerformanceSnapshotRowView> findSnapshotRow(@Param("branchId") Long branchId,
+                                                         @Param("year") Integer year,
+                                                         @Param("month") Integer month);
+
+    @Query(value = ROLLUP_ROWS, nativeQuery = true)
+    List<RollupRowView> computeRollupRows(@Param("year") Integer year, @Param("month") Integer month);
+
+    // Recompute the rollup row of one branch and month in a single statement. The INSERT ... SELECT reads
+    // sdb_target and sdb_collection with locking reads, so concurrent writers of the same branch and month
+    // wait for each other and the last one to commit sums every committed row instead of overwriting them.
+    // Inserts nothing when the branch has no target or collection that month.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO sdb_branch_performance (sdb_branch_id, mkt_sdb_region_id, perf_year, perf_month, " +
+            "target, collection, due, percentage, refreshed_datetime) " +
+            "SELECT s.branch_id, s.region_id, s.y, s.m, s.target, s.collection, " +
+            "s.target - s.collection, " +
+            "CASE WHEN s.target > 0 THEN LEAST(ROUND(s.collection * 100 / s.target, 2), 99999.99) ELSE 0 END, :refreshed " +
+            "FROM (SELECT b.id AS branch_id, b.mkt_sdb_region_id AS region_id, CAST(:year AS SIGNED) AS y, CAST(:month AS SIGNED) AS m, " +
+            "             COALESCE(t.total, 0) AS target, COALESCE(c.total, 0) AS collection " +
+            "      FROM sdb_branch b " +
+            "      CROSS JOIN (SELECT SUM(target) AS total FROM sdb_target " +
+            "                  WHERE sdb_branch_id = :branchId AND target_year = :year AND target_month = :month) t " +
+            "      CROSS JOIN (SELECT SUM(collection) AS total FROM sdb_collection " +
+            "                  WHERE sdb_branch_id = :branchId AND collection_year = :year AND collection_month = :month) c " +
+            "      WHERE b.id = :branchId AND (t.total IS NOT NULL OR c.total IS NOT NULL)) s " +
+            "ON DUPLICATE KEY UPDATE mkt_sdb_region_id = VALUES(mkt_sdb_region_id), target = VALUES(target), " +
+            "collection = VALUES(collection), due = VALUES(due), percentage = VALUES(percentage), " +
+            "refreshed_datetime = VALUES(refreshed_datetime)", nativeQuery = true)
+    int upsertRollupRow(@Param("branchId") Long branchId, @Param("year") Integer year, @Param("month") Integer month,
+                        @Param("refreshed") LocalDateTime refreshed);
+
+    // Drop the rollup row of a branch and month that no longer has a target or collection
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM sdb_branch_performance " +
+            "WHERE sdb_branch_id = :branchId AND perf_year = :year AND perf_month = :month " +
+            "AND NOT EXISTS (SELECT 1 FROM sdb_target WHERE sdb_branch_id = :branchId " +
+            "                AND target_year = :year AND target_month = :month AND target IS NOT NULL) " +
+            "AND NOT EXISTS (SELECT 1 FROM sdb_collection WHERE sdb_branch_id = :branchId " +
+            "                AND collection_year = :year AND collection_month = :month AND collection IS NOT NULL)",
+            nativeQuery = true)
+    int deleteEmptyRollupRow(@Param("branchId") Long branchId, @Param("year") Integer year, @Param("month") Integer month);
+
+    // Insert the computed rollup rows matching the (nullable) year/month filter, also as one locking INSERT ... SELECT
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO sdb_branch_performance (sdb_branch_id, mkt_sdb_region_id, perf_year, perf_month, " +
+            "target, collection, due, percentage, refreshed_datetime) " +
+            "SELECT r.branchId, b.mkt_sdb_region_id, r.year, r.month, r.target, r.collection, " +
+            "r.target - r.collection, " +
+            "CASE WHEN r.target > 0 THEN LEAST(ROUND(r.collection * 100 / r.target, 2), 99999.99) ELSE 0 END, :refreshed " +
+            "FROM (" + ROLLUP_ROWS + ") r JOIN sdb_branch b ON b.id = r.branchId", nativeQuery = true)
+    int insertRollupRows(@Param("year") Integer year, @Param("month") Integer month,
+                         @Param("refreshed") LocalDateTime refreshed);
+
+    @Modifying
+    @Query("DELETE FROM BranchPerformanceEntity p WHERE (:year IS NULL OR p.perfYear = :year) AND (:month IS NULL OR p.perfMonth = :month)")
+    int deleteByYearAndMonth(@Param("year") Integer year, @Param("month") Integer month);
+
+    @Modifying
+    @Query("DELETE FROM BranchPerformanceEntity p WHERE p.branch.id = :branchId")
+    int deleteByBranchId(@Param("branchId") Long branchId);
+
+    @Modifying
+    @Query("DELETE FROM BranchPerformanceEntity p WHERE p.region.id = :regionId")
+    int deleteByRegionId(@Param("regionId") Long regionId);
+
+    // Keep the denormalised region in step when a branch moves to another region
+    @Modifying
+    @Query("UPDATE BranchPerformanceEntity p SET p.region = :region WHERE p.branch.id = :branchId")
+    int updateRegionForBranch(@Param("branchId") Long branchId, @Param("region") RegionEntity region);
+}
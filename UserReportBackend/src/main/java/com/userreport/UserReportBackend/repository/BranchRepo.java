@@ -1,12 +1,17 @@
 package com.userreport.UserReportBackend.repository;
 
+import com.userreport.UserReportBackend.dto.branch.BranchSummaryResponseDTO;
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
 import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.TargetEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +31,43 @@ public interface BranchRepo extends JpaRepository<BranchEntity,Long> {
     @Query("SELECT b FROM BranchEntity b WHERE b.region.id = :regionId")
     List<BranchEntity> findByRegionId(@Param("regionId") Long regionId);
 
+    // Branch reference data with its region, read through ReferenceDataService
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.BranchInfoDTO(b.id, b.brnName, b.brnDes, r.id, r.rgnName, r.rgnDes) " +
+            "FROM BranchEntity b JOIN b.region r ORDER BY b.id")
+    List<BranchInfoDTO> findAllBranchInfo();
 
-    BranchEntity findByBrnName(String stringCellValue);
-}
\ No newline at end of file
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.BranchInfoDTO(b.id, b.brnName, b.brnDes, r.id, r.rgnName, r.rgnDes) " +
+            "FROM BranchEntity b JOIN b.region r WHERE b.id = :id")
+    Optional<BranchInfoDTO> findBranchInfoById(@Param("id") Long id);
+
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.BranchInfoDTO(b.id, b.brnName, b.brnDes, r.id, r.rgnName, r.rgnDes) " +
+            "FROM BranchEntity b JOIN b.region r WHERE r.id = :regionId ORDER BY b.id")
+    List<BranchInfoDTO> findBranchInfoByRegionId(@Param("regionId") Long regionId);
+
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.BranchInfoDTO(b.id, b.brnName, b.brnDes, r.id, r.rgnName, r.rgnDes) " +
+            "FROM BranchEntity b JOIN b.region r WHERE LOWER(b.brnName) = LOWER(:branchName)")
+    Optional<BranchInfoDTO> findBranchInfoByName(@Param("branchName") String branchName);
+
+    // Summary row per branch, hasTarget/hasCollection are EXISTS checks so the cost does not grow with history
+    @Query("SELECT new com.userreport.UserReportBackend.dto.branch.BranchSummaryResponseDTO(b.id, b.brnName, b.brnDes, r.rgnName, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM TargetEntity t WHERE t.branch = b) THEN true ELSE false END, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM CollectionEntity c WHERE c.branch = b) THEN true ELSE false END) " +
+            "FROM BranchEntity b JOIN b.region r ORDER BY b.id")
+    List<BranchSummaryResponseDTO> findAllBranchSummaries();
+
+    @Query("SELECT new com.userreport.UserReportBackend.dto.branch.BranchSummaryResponseDTO(b.id, b.brnName, b.brnDes, r.rgnName, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM TargetEntity t WHERE t.branch = b) THEN true ELSE false END, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM CollectionEntity c WHERE c.branch = b) THEN true ELSE false END) " +
+            "FROM BranchEntity b JOIN b.region r WHERE r.id = :regionId ORDER BY b.id")
+    List<BranchSummaryResponseDTO> findBranchSummariesByRegionId(@Param("regionId") Long regionId);
+
+    // sdb_target and sdb_collection have no branch foreign key (partitioned, V4). Writers share-lock the branch rows
+    // they reference, as the foreign key check did, and a branch delete takes the exclusive lock before its checks
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT b.id FROM BranchEntity b WHERE b.id IN :ids")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id FROM BranchEntity b WHERE b.id = :id")
+    Optional<Long> lockIdForDelete(@Param("id") Long id);
+}
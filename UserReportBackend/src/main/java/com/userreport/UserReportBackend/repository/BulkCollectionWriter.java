@@ -0,0 +1,43 @@
+package com.userreport.UserReportBackend.repository;
+
+import com.userreport.UserReportBackend.entity.CollectionEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+
+// Plain JDBC batch inserts for Excel uploads. Hibernate cannot batch IDENTITY inserts,
+// so going through saveAll would cost one round trip per row.
+@Repository
+public class BulkCollectionWriter {
+    private static final String INSERT_SQL = "INSERT INTO sdb_collection " +
+            "(target, due, collection, percentage, collection_year, collection_month, sdb_branch_id, created_by, created_datetime) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public BulkCollectionWriter(JdbcTemplate jdbcTemplate, @Value("${bulk.insert.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertAll(List<CollectionEntity> collections) {
+        if (collections.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, collections, batchSize, (ps, collection) -> {
+            ps.setBigDecimal(1, collection.getTarget());
+            ps.setBigDecimal(2, collection.getDue());
+            ps.setBigDecimal(3, collection.getCollectionAmount());
+            ps.setBigDecimal(4, collection.getPercentage());
+            ps.setInt(5, collection.getCollectionYear());
+            ps.setInt(6, collection.getCollectionMonth());
+            ps.setLong(7, collection.getBranch().getId());
+            ps.setObject(8, collection.getCreatedBy() != null ? collection.getCreatedBy().getId() : null, Types.BIGINT);
+            ps.setObject(9, collection.getCreatedDatetime());
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.userreport.UserReportBackend.repository;
+
+import com.userreport.UserReportBackend.entity.TargetEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+
+// Plain JDBC batch inserts for Excel uploads, see BulkCollectionWriter
+@Repository
+public class BulkTargetWriter {
+    private static final String INSERT_SQL = "INSERT INTO sdb_target " +
+            "(target, target_year, target_month, sdb_branch_id, created_by, created_datetime) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public BulkTargetWriter(JdbcTemplate jdbcTemplate, @Value("${bulk.insert.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertAll(List<TargetEntity> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, targets, batchSize, (ps, target) -> {
+            ps.setBigDecimal(1, target.getTarget());
+            ps.setInt(2, target.getTargetYear());
+            ps.setInt(3, target.getTargetMonth());
+            ps.setLong(4, target.getBranch().getId());
+            ps.setObject(5, target.getCreatedBy() != null ? target.getCreatedBy().getId() : null, Types.BIGINT);
+            ps.setObject(6, target.getCreatedDatetime());
+        });
+    }
+}
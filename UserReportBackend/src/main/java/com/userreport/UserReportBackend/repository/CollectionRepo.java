@@ -1,14 +1,19 @@
 package com.userreport.UserReportBackend.repository;
 
+import com.userreport.UserReportBackend.dto.collection.CollectionResponseDTO;
+import com.userreport.UserReportBackend.dto.info.LatestCollectionView;
 import com.userreport.UserReportBackend.entity.CollectionEntity;
 import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.TargetEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.List;
@@ -36,26 +41,31 @@ public interface CollectionRepo extends JpaRepository<CollectionEntity, Long> {
     // Check if collection exists for a branch
     boolean existsByBranch(BranchEntity branch);
 
-    // Check if collection exists for specific branch, year, and month
-    boolean existsByBranchAndCollectionYearAndCollectionMonth(BranchEntity branch, Integer collectionYear, Integer collectionMonth);
-
     // Find collections by region (through branch relationship)
     @Query("SELECT c FROM CollectionEntity c WHERE c.branch.region.id = :regionId")
     List<CollectionEntity> findByRegionId(@Param("regionId") Long regionId);
 
-    // Find collections by region for specific year and month
-    @Query("SELECT c FROM CollectionEntity c WHERE c.branch.region.id = :regionId AND c.collectionYear = :year AND c.collectionMonth = :month")
+    // Find collections by region for a specific year, with what the response DTOs read fetched in the same statement
+    @Query("SELECT c FROM CollectionEntity c JOIN FETCH c.branch b JOIN FETCH b.region r " +
+            "LEFT JOIN FETCH c.createdBy LEFT JOIN FETCH c.modifyBy WHERE r.id = :regionId AND c.collectionYear = :year")
+    List<CollectionEntity> findByRegionIdAndYear(@Param("regionId") Long regionId, @Param("year") Integer year);
+
+    // Find collections by region for specific year and month, fetched like findByRegionIdAndYear
+    @Query("SELECT c FROM CollectionEntity c JOIN FETCH c.branch b JOIN FETCH b.region r " +
+            "LEFT JOIN FETCH c.createdBy LEFT JOIN FETCH c.modifyBy " +
+            "WHERE r.id = :regionId AND c.collectionYear = :year AND c.collectionMonth = :month")
     List<CollectionEntity> findByRegionIdAndYearAndMonth(@Param("regionId") Long regionId,
                                                          @Param("year") Integer year,
                                                          @Param("month") Integer month);
 
-    // Find collections with percentage above threshold
-    @Query("SELECT c FROM CollectionEntity c WHERE c.percentage >= :threshold")
-    List<CollectionEntity> findByPercentageGreaterThanEqual(@Param("threshold") BigDecimal threshold);
-
-    // Find the latest collection for a branch (most recent by datetime)
-    @Query("SELECT c FROM CollectionEntity c WHERE c.branch = :branch ORDER BY c.createdDatetime DESC")
-    List<CollectionEntity> findLatestByBranch(@Param("branch") BranchEntity branch);
+    // Latest collection (most recent by datetime) of each of the given branches, one row per branch
+    @Query(value = "SELECT latest.sdb_branch_id AS branchId, latest.id AS id, latest.target AS target, latest.due AS due, " +
+            "latest.collection AS collectionAmount, latest.percentage AS percentage, " +
+            "latest.created_datetime AS createdDatetime, latest.modify_datetime AS modifyDatetime " +
+            "FROM (SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.sdb_branch_id ORDER BY c.created_datetime DESC, c.id DESC) AS rn " +
+            "      FROM sdb_collection c WHERE c.sdb_branch_id IN (:branchIds)) latest " +
+            "WHERE latest.rn = 1", nativeQuery = true)
+    List<LatestCollectionView> findLatestByBranchIds(@Param("branchIds") Collection<Long> branchIds);
 
     // Find collections by year
     List<CollectionEntity> findByCollectionYear(Integer year);
@@ -79,4 +89,96 @@ public interface CollectionRepo extends JpaRepository<CollectionEntity, Long> {
     BigDecimal sumCollectionByBranchAndYear(@Param("branchId") Long branchId, @Param("year") int year);
 
     Optional<CollectionEntity> findByBranchAndCollectionYearAndCollectionMonth(BranchEntity branch, int year, int month);
-}
\ No newline at end of file
+
+
+    // Whether a user created or last modified any collections, checked before deleting the user
+    boolean existsByCreatedByIdOrModifyById(Long createdById, Long modifyById);
+
+    // Response rows selected straight into the DTO: branch, region and user names come from joins,
+    // so list endpoints are a single query and no entities are loaded or managed
+    String RESPONSE_SELECT = "SELECT new com.userreport.UserReportBackend.dto.collection.CollectionResponseDTO(" +
+            "c.id, c.target, c.due, c.collectionAmount, c.percentage, c.collectionYear, c.collectionMonth, b.brnName, r.rgnName, " +
+            "c.createdDatetime, c.modifyDatetime, cu.username, mu.username) " +
+            "FROM CollectionEntity c JOIN c.branch b JOIN b.region r LEFT JOIN c.createdBy cu LEFT JOIN c.modifyBy mu ";
+
+    @Query(RESPONSE_SELECT + "WHERE c.id = :id")
+    Optional<CollectionResponseDTO> findResponseById(@Param("id") Long id);
+
+    // Most recent collection of a branch first, callers pass a page of one
+    @Query(RESPONSE_SELECT + "WHERE b.id = :branchId ORDER BY c.createdDatetime DESC, c.id DESC")
+    List<CollectionResponseDTO> findLatestResponsesByBranchId(@Param("branchId") Long branchId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE b.id = :branchId AND c.collectionYear = :year AND c.collectionMonth = :month")
+    Optional<CollectionResponseDTO> findResponseByBranchIdAndYearAndMonth(@Param("branchId") Long branchId,
+                                                          @Param("year") Integer year,
+                                                          @Param("month") Integer month);
+
+    // Keyset pages ordered by id, one query per filter the list endpoints offer so each gets its own plan.
+    // The first page passes afterId 0
+    @Query(RESPONSE_SELECT + "WHERE c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePage(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE b.id = :branchId AND c.collectionYear = :year AND c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByBranchIdAndYear(@Param("branchId") Long branchId,
+                                                                   @Param("year") Integer year,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = :regionId AND c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByRegionId(@Param("regionId") Long regionId,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = :regionId AND c.collectionYear = :year AND c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByRegionIdAndYear(@Param("regionId") Long regionId,
+                                                                   @Param("year") Integer year,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Pageable pageable);
+
+    @Query(RESPONSE_SELECT +
+            "WHERE r.id = :regionId AND c.collectionYear = :year AND c.collectionMonth = :month AND c.id > :afterId " +
+            "ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByRegionIdAndYearAndMonth(@Param("regionId") Long regionId,
+                                                                           @Param("year") Integer year,
+                                                                           @Param("month") Integer month,
+                                                                           @Param("afterId") Long afterId,
+                                                                           Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE c.percentage >= :threshold AND c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByMinPercentage(@Param("threshold") BigDecimal threshold,
+                                                                 @Param("afterId") Long afterId,
+                                                                 Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE c.collectionYear = :year AND c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByYear(@Param("year") Integer year,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE c.collectionYear = :year AND c.collectionMonth = :month AND c.id > :afterId ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageByYearAndMonth(@Param("year") Integer year,
+                                                                @Param("month") Integer month,
+                                                                @Param("afterId") Long afterId,
+                                                                Pageable pageable);
+
+    // Keyset pages of one month's collections below / at least a percentage,
+    // both a range scan on idx_collection_year_month_percentage
+    @Query(RESPONSE_SELECT +
+            "WHERE c.collectionYear = :year AND c.collectionMonth = :month AND c.percentage < :threshold " +
+            "AND c.id > :afterId " +
+            "ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageBelowPercentage(@Param("year") Integer year,
+                                                                 @Param("month") Integer month,
+                                                                 @Param("threshold") BigDecimal threshold,
+                                                                 @Param("afterId") Long afterId,
+                                                                 Pageable pageable);
+
+    @Query(RESPONSE_SELECT +
+            "WHERE c.collectionYear = :year AND c.collectionMonth = :month AND c.percentage >= :threshold " +
+            "AND c.id > :afterId " +
+            "ORDER BY c.id")
+    Slice<CollectionResponseDTO> findResponsePageAtLeastPercentage(@Param("year") Integer year,
+                                                                   @Param("month") Integer month,
+                                                                   @Param("threshold") BigDecimal threshold,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Pageable pageable);
+}
@@ -1,12 +1,28 @@
 package com.userreport.UserReportBackend.repository;
 
+import com.userreport.UserReportBackend.dto.info.RegionInfoDTO;
 import com.userreport.UserReportBackend.entity.RegionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RegionRepo extends JpaRepository<RegionEntity,Long> {
     boolean existsByRgnName(String rgnName);
 
     RegionEntity findByRgnName(String regionName);
+
+    // Region reference data, read through ReferenceDataService
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.RegionInfoDTO(r.id, r.rgnName, r.rgnDes) FROM RegionEntity r ORDER BY r.id")
+    List<RegionInfoDTO> findAllRegionInfo();
+
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.RegionInfoDTO(r.id, r.rgnName, r.rgnDes) FROM RegionEntity r WHERE r.id = :id")
+    Optional<RegionInfoDTO> findRegionInfoById(@Param("id") Long id);
+
+    @Query("SELECT new com.userreport.UserReportBackend.dto.info.RegionInfoDTO(r.id, r.rgnName, r.rgnDes) FROM RegionEntity r WHERE UPPER(r.rgnName) = UPPER(:regionName)")
+    Optional<RegionInfoDTO> findRegionInfoByName(@Param("regionName") String regionName);
 }
@@ -1,13 +1,19 @@
 package com.userreport.UserReportBackend.repository;
 
+import com.userreport.UserReportBackend.dto.info.LatestTargetView;
+import com.userreport.UserReportBackend.dto.performance.VarianceReportDTO;
+import com.userreport.UserReportBackend.dto.target.TargetResponseDTO;
 import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.TargetEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,15 +39,19 @@ public interface TargetRepo extends JpaRepository<TargetEntity, Long> {
     // Check if target exists for a branch
     boolean existsByBranch(BranchEntity branch);
 
-    // Check if target exists for specific branch, year, and month
-    boolean existsByBranchAndTargetYearAndTargetMonth(BranchEntity branch, Integer targetYear, Integer targetMonth);
-
     // Find targets by region (through branch relationship)
     @Query("SELECT t FROM TargetEntity t WHERE t.branch.region.id = :regionId")
     List<TargetEntity> findByRegionId(@Param("regionId") Long regionId);
 
-    // Find targets by region for specific year and month
-    @Query("SELECT t FROM TargetEntity t WHERE t.branch.region.id = :regionId AND t.targetYear = :year AND t.targetMonth = :month")
+    // Find targets by region for a specific year, with what the response DTOs read fetched in the same statement
+    @Query("SELECT t FROM TargetEntity t JOIN FETCH t.branch b JOIN FETCH b.region r " +
+            "LEFT JOIN FETCH t.createdBy LEFT JOIN FETCH t.modifyBy WHERE r.id = :regionId AND t.targetYear = :year")
+    List<TargetEntity> findByRegionIdAndYear(@Param("regionId") Long regionId, @Param("year") Integer year);
+
+    // Find targets by region for specific year and month, fetched like findByRegionIdAndYear
+    @Query("SELECT t FROM TargetEntity t JOIN FETCH t.branch b JOIN FETCH b.region r " +
+            "LEFT JOIN FETCH t.createdBy LEFT JOIN FETCH t.modifyBy " +
+            "WHERE r.id = :regionId AND t.targetYear = :year AND t.targetMonth = :month")
     List<TargetEntity> findByRegionIdAndYearAndMonth(@Param("regionId") Long regionId,
                                                      @Param("year") Integer year,
                                                      @Param("month") Integer month);
@@ -50,9 +60,13 @@ public interface TargetRepo extends JpaRepository<TargetEntity, Long> {
     @Query("SELECT t FROM TargetEntity t WHERE t.target >= :amount")
     List<TargetEntity> findByTargetGreaterThanEqual(@Param("amount") BigDecimal amount);
 
-    // Find the latest target for a branch (most recent by datetime)
-    @Query("SELECT t FROM TargetEntity t WHERE t.branch = :branch ORDER BY t.createdDatetime DESC")
-    List<TargetEntity> findLatestByBranch(@Param("branch") BranchEntity branch);
+    // Latest target (most recent by datetime) of each of the given branches, one row per branch
+    @Query(value = "SELECT latest.sdb_branch_id AS branchId, latest.id AS id, latest.target AS target, " +
+            "latest.created_datetime AS createdDatetime, latest.modify_datetime AS modifyDatetime " +
+            "FROM (SELECT t.*, ROW_NUMBER() OVER (PARTITION BY t.sdb_branch_id ORDER BY t.created_datetime DESC, t.id DESC) AS rn " +
+            "      FROM sdb_target t WHERE t.sdb_branch_id IN (:branchIds)) latest " +
+            "WHERE latest.rn = 1", nativeQuery = true)
+    List<LatestTargetView> findLatestByBranchIds(@Param("branchIds") Collection<Long> branchIds);
 
     // Get total target amount by region for specific month/year
     @Query("SELECT SUM(t.target) FROM TargetEntity t WHERE t.branch.region.id = :regionId AND t.targetYear = :year AND t.targetMonth = :month")
@@ -72,4 +86,85 @@ public interface TargetRepo extends JpaRepository<TargetEntity, Long> {
 
     @Query("SELECT SUM(t.target) FROM TargetEntity t WHERE t.branch.id = :branchId AND t.targetYear = :year")
     BigDecimal sumTargetByBranchAndYear(@Param("branchId") Long branchId, @Param("year") int year);
+
+
+    // Target against collection per branch and month in one join: each target row meets at most one collection
+    // through the branch/year/month unique keys. Region and month left null are not filtered on.
+    @Query("SELECT new com.userreport.UserReportBackend.dto.performance.VarianceReportDTO(" +
+            "b.id, b.brnName, r.id, r.rgnName, t.targetYear, t.targetMonth, t.target, " +
+            "COALESCE(c.collectionAmount, 0), t.target - COALESCE(c.collectionAmount, 0), " +
+            "CASE WHEN t.target > 0 THEN ROUND(COALESCE(c.collectionAmount, 0) * 100 / t.target, 2) ELSE 0 END, " +
+            "CASE WHEN c.id IS NULL THEN true ELSE false END) " +
+            "FROM TargetEntity t JOIN t.branch b JOIN b.region r " +
+            "LEFT JOIN CollectionEntity c ON c.branch = b AND c.collectionYear = t.targetYear AND c.collectionMonth = t.targetMonth " +
+            "WHERE t.targetYear = :year " +
+            "AND (:regionId IS NULL OR r.id = :regionId) " +
+            "AND (:month IS NULL OR t.targetMonth = :month) " +
+            "ORDER BY t.targetMonth, b.brnName")
+    List<VarianceReportDTO> findVarianceReport(@Param("regionId") Long regionId,
+                                               @Param("year") Integer year,
+                                               @Param("month") Integer month);
+
+    // Whether a user created or last modified any targets, checked before deleting the user
+    boolean existsByCreatedByIdOrModifyById(Long createdById, Long modifyById);
+
+    // Response rows selected straight into the DTO: branch, region and user names come from joins,
+    // so list endpoints are a single query and no entities are loaded or managed
+    String RESPONSE_SELECT = "SELECT new com.userreport.UserReportBackend.dto.target.TargetResponseDTO(" +
+            "t.id, t.target, t.targetYear, t.targetMonth, b.brnName, r.rgnName, " +
+            "t.createdDatetime, t.modifyDatetime, cu.username, mu.username) " +
+            "FROM TargetEntity t JOIN t.branch b JOIN b.region r LEFT JOIN t.createdBy cu LEFT JOIN t.modifyBy mu ";
+
+    @Query(RESPONSE_SELECT + "WHERE t.id = :id")
+    Optional<TargetResponseDTO> findResponseById(@Param("id") Long id);
+
+    // Most recent target of a branch first, callers pass a page of one
+    @Query(RESPONSE_SELECT + "WHERE b.id = :branchId ORDER BY t.createdDatetime DESC, t.id DESC")
+    List<TargetResponseDTO> findLatestResponsesByBranchId(@Param("branchId") Long branchId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE b.id = :branchId AND t.targetYear = :year AND t.targetMonth = :month")
+    Optional<TargetResponseDTO> findResponseByBranchIdAndYearAndMonth(@Param("branchId") Long branchId,
+                                                          @Param("year") Integer year,
+                                                          @Param("month") Integer month);
+
+    // Keyset pages ordered by id, one query per filter the list endpoints offer so each gets its own plan.
+    // The first page passes afterId 0
+    @Query(RESPONSE_SELECT + "WHERE t.id > :afterId ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePage(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE b.id = :branchId AND t.targetYear = :year AND t.id > :afterId ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePageByBranchIdAndYear(@Param("branchId") Long branchId,
+                                                               @Param("year") Integer year,
+                                                               @Param("afterId") Long afterId,
+                                                               Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = :regionId AND t.id > :afterId ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePageByRegionId(@Param("regionId") Long regionId,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+
+    @Query(RESPONSE_SELECT +
+            "WHERE r.id = :regionId AND t.targetYear = :year AND t.targetMonth = :month AND t.id > :afterId " +
+            "ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePageByRegionIdAndYearAndMonth(@Param("regionId") Long regionId,
+                                                                       @Param("year") Integer year,
+                                                                       @Param("month") Integer month,
+                                                                       @Param("afterId") Long afterId,
+                                                                       Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE t.target >= :amount AND t.id > :afterId ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePageByMinAmount(@Param("amount") BigDecimal amount,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE t.targetYear = :year AND t.id > :afterId ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePageByYear(@Param("year") Integer year,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE t.targetYear = :year AND t.targetMonth = :month AND t.id > :afterId ORDER BY t.id")
+    Slice<TargetResponseDTO> findResponsePageByYearAndMonth(@Param("year") Integer year,
+                                                            @Param("month") Integer month,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
 }
@@ -0,0 +1,7 @@
+package com.userreport.UserReportBackend.services;
+
+import com.userreport.UserReportBackend.dto.user.AuthenticatedUser;
+
+public interface AuthenticatedUserService {
+    AuthenticatedUser loadByUsername(String username);
+}
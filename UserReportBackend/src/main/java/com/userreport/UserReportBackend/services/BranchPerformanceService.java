@@ -0,0 +1,36 @@
+package com.userreport.UserReportBackend.services;
+
+import com.userreport.UserReportBackend.dto.performance.BranchPerformanceDTO;
+import com.userreport.UserReportBackend.dto.performance.RollupConsistencyReportDTO;
+import com.userreport.UserReportBackend.dto.performance.VarianceReportDTO;
+
+import java.util.List;
+
+public interface BranchPerformanceService {
+    // Recompute the rollup row of one branch and month after a single write
+    void refresh(Long branchId, Integer year, Integer month);
+
+    // Recompute all rollup rows of a month after a bulk (Excel) write
+    void refreshMonth(Integer year, Integer month);
+
+    // Drop and recompute the whole rollup table (backfill)
+    int rebuildAll();
+
+    // Load the in-memory copy of the rollup that performance, dashboard and region total reads use
+    int loadSnapshot();
+
+    RollupConsistencyReportDTO checkConsistency();
+
+    void onBranchRegionChanged(Long branchId);
+
+    void onBranchDeleted(Long branchId);
+
+    void onRegionDeleted(Long regionId);
+
+    List<BranchPerformanceDTO> getPerformanceByYear(Integer year);
+
+    List<BranchPerformanceDTO> getPerformanceByRegionIdAndYear(Long regionId, Integer year);
+
+    // Target against collection per branch and month, region and month are optional filters
+    List<VarianceReportDTO> getVarianceReport(Long regionId, Integer year, Integer month);
+}
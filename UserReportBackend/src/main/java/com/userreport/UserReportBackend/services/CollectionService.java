@@ -1,5 +1,6 @@
 package com.userreport.UserReportBackend.services;
 
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
 import com.userreport.UserReportBackend.dto.collection.*;
 import com.userreport.UserReportBackend.entity.CollectionEntity;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,8 +16,6 @@ public interface CollectionService {
 
     void deleteCollection(Long id);
 
-    List<CollectionResponseDTO> getAllCollectionResponses();
-
     CollectionResponseDTO getCollectionResponseById(Long id);
 
     CollectionResponseDTO getCollectionResponseByBranchId(Long branchId);
@@ -24,18 +23,6 @@ public interface CollectionService {
 
     CollectionResponseDTO getCollectionResponseByBranchIdAndYearMonth(Long branchId, Integer year, Integer month);
 
-    List<CollectionResponseDTO> getCollectionResponsesByBranchIdAndYear(Long branchId, Integer year);
-
-    List<CollectionResponseDTO> getCollectionResponsesByRegionId(Long regionId);
-
-    List<CollectionResponseDTO> getCollectionResponsesByRegionIdAndYearMonth(Long regionId, Integer year, Integer month);
-
-    List<CollectionResponseDTO> getCollectionResponsesByPercentageThreshold(BigDecimal threshold);
-
-    List<CollectionResponseDTO> getCollectionResponsesByYear(Integer year);
-
-    List<CollectionResponseDTO> getCollectionResponsesByYearAndMonth(Integer year, Integer month);
-
     List<CollectionEntity> getAllCollections();
 
     CollectionEntity getCollectionById(Long id);
@@ -58,5 +45,12 @@ public interface CollectionService {
 
     void updateCollectionsFromExcel(MultipartFile file, int year, int month);
 
-    List<CollectionResponseDTO> getCollectionResponsesByRegionIdAndYear(Long regionId, Integer year);
+    // Keyset pagination for the list endpoints, null filters are not applied.
+    // Only the filter combinations the endpoints offer are supported
+    CursorPageDTO<CollectionResponseDTO> getCollectionResponsePage(Long branchId, Long regionId, Integer year, Integer month,
+                                                                   BigDecimal minPercentage, Long afterId, Integer size);
+
+    // Keyset page of a month's collections below the threshold percentage, or at least it when below is false
+    CursorPageDTO<CollectionResponseDTO> getCollectionResponsePageByPercentage(Integer year, Integer month, BigDecimal threshold,
+                                                                               boolean below, Long afterId, Integer size);
 }
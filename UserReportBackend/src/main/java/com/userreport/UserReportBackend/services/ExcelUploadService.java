@@ -6,6 +6,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ExcelUploadService {
     boolean isValidExcelFile(MultipartFile file);
@@ -15,4 +16,13 @@ public interface ExcelUploadService {
     List<CollectionEntity> updateCollectionsFromExcel(InputStream inputStream, int year, int month);
 
     List<TargetEntity> updateTargetsFromExcel(InputStream inputStream, int year, int month);
+
+    // Streaming variants: rows are parsed one at a time and handed over in fixed-size chunks
+    void streamTargetsFromExcel(InputStream inputStream, int year, int month, Consumer<List<TargetEntity>> chunkConsumer);
+
+    void streamCollectionsFromExcel(InputStream inputStream, int year, int month, Consumer<List<CollectionEntity>> chunkConsumer);
+
+    void streamCollectionUpdatesFromExcel(InputStream inputStream, int year, int month, Consumer<List<CollectionEntity>> chunkConsumer);
+
+    void streamTargetUpdatesFromExcel(InputStream inputStream, int year, int month, Consumer<List<TargetEntity>> chunkConsumer);
 }
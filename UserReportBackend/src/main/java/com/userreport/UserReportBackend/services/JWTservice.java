@@ -1,27 +1,51 @@
 package com.userreport.UserReportBackend.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Map;
 import io.jsonwebtoken.Claims;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 
 @Service
 public class JWTservice {
     private final SecretKey secretKey;
+    // JwtParser is immutable and thread-safe, so one instance is shared by all requests
+    private final JwtParser jwtParser;
+    // Verified claims keyed by token hash, each entry expires together with its token
+    private final Cache<String, Claims> verifiedClaims;
 
-    public JWTservice(@Value("${jwt.secret}") String secretString) {
+    public JWTservice(@Value("${jwt.secret}") String secretString,
+                      @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheSize,
+                      MeterRegistry meterRegistry) {
         try{
             // Use a fixed secret key instead of generating new one each time
             secretKey = Keys.hmacShaKeyFor(secretString.getBytes());
         }catch(Exception e){
             throw new RuntimeException(e);
         }
+        jwtParser = Jwts.parser().verifyWith(secretKey).build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new ClaimsExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwtClaims");
     }
 
     public String getJwtToken(String username , Map<String,Object> claims){
@@ -51,14 +75,54 @@ public class JWTservice {
     }
 
     public Claims getTokenData(String token){
+        if(token == null){
+            return null;
+        }
+        String key = hash(token);
+        Claims cached = verifiedClaims.getIfPresent(key);
+        if(cached != null){
+            return cached;
+        }
         try{
-            return Jwts
-                    .parser()
-                    .verifyWith(secretKey).build()
+            Claims claims = jwtParser
                     .parseSignedClaims(token)
                     .getPayload();
+            verifiedClaims.put(key, claims); // Only tokens that passed verification are cached
+            return claims;
         }catch(Exception e){
             return null;
         }
     }
+
+    // The raw bearer token is not kept in memory, only its SHA-256
+    private static String hash(String token){
+        try{
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        }catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if(expiration == null){
+                return TimeUnit.HOURS.toNanos(24); // Same lifetime as the tokens issued by getJwtToken
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
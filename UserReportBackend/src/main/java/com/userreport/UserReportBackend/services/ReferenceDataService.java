@@ -0,0 +1,22 @@
+package com.userreport.UserReportBackend.services;
+
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
+import com.userreport.UserReportBackend.dto.info.RegionInfoDTO;
+
+import java.util.List;
+
+public interface ReferenceDataService {
+    BranchInfoDTO getBranchById(Long id);
+
+    BranchInfoDTO getBranchByName(String brnName);
+
+    List<BranchInfoDTO> getAllBranches();
+
+    List<BranchInfoDTO> getBranchesByRegionId(Long regionId);
+
+    RegionInfoDTO getRegionById(Long id);
+
+    RegionInfoDTO getRegionByName(String rgnName);
+
+    List<RegionInfoDTO> getAllRegions();
+}
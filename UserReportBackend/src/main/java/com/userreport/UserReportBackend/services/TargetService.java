@@ -1,5 +1,6 @@
 package com.userreport.UserReportBackend.services;
 
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
 import com.userreport.UserReportBackend.dto.target.*;
 import com.userreport.UserReportBackend.entity.TargetEntity;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,8 +19,6 @@ public interface TargetService {
 
     List<TargetEntity> getAllTargets();
 
-    List<TargetResponseDTO> getAllTargetResponses();
-
     TargetEntity getTargetById(Long id);
 
     TargetResponseDTO getTargetResponseById(Long id);
@@ -34,28 +33,16 @@ public interface TargetService {
 
     List<TargetEntity> getTargetsByBranchIdAndYear(Long branchId, Integer year);
 
-    List<TargetResponseDTO> getTargetResponsesByBranchIdAndYear(Long branchId, Integer year);
-
     List<TargetEntity> getTargetsByRegionId(Long regionId);
 
-    List<TargetResponseDTO> getTargetResponsesByRegionId(Long regionId);
-
     List<TargetEntity> getTargetsByRegionIdAndYearMonth(Long regionId, Integer year, Integer month);
 
-    List<TargetResponseDTO> getTargetResponsesByRegionIdAndYearMonth(Long regionId, Integer year, Integer month);
-
     List<TargetEntity> getTargetsByMinimumAmount(BigDecimal amount);
 
-    List<TargetResponseDTO> getTargetResponsesByMinimumAmount(BigDecimal amount);
-
     List<TargetEntity> getTargetsByYear(Integer year);
 
-    List<TargetResponseDTO> getTargetResponsesByYear(Integer year);
-
     List<TargetEntity> getTargetsByYearAndMonth(Integer year, Integer month);
 
-    List<TargetResponseDTO> getTargetResponsesByYearAndMonth(Integer year, Integer month);
-
     BigDecimal getTotalTargetByRegion(Long regionId);
 
     BigDecimal getTotalTargetByRegionAndYearMonth(Long regionId, Integer year, Integer month);
@@ -71,4 +58,9 @@ public interface TargetService {
     void saveTargetsFromExcel(MultipartFile file, int year, int month);
 
     void updateTargetsFromExcel(MultipartFile file, int year, int month);
+
+    // Keyset pagination for the list endpoints, null filters are not applied.
+    // Only the filter combinations the endpoints offer are supported
+    CursorPageDTO<TargetResponseDTO> getTargetResponsePage(Long branchId, Long regionId, Integer year, Integer month,
+                                                           BigDecimal minAmount, Long afterId, Integer size);
 }
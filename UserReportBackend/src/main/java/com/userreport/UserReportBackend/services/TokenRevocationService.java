@@ -0,0 +1,11 @@
+package com.userreport.UserReportBackend.services;
+
+public interface TokenRevocationService {
+    long currentVersion(Long userId);
+
+    void revoke(Long userId);
+
+    boolean isCurrent(Long userId, long version);
+
+    boolean isIssuedBeforeStartup(long version);
+}
@@ -1,14 +1,20 @@
 package com.userreport.UserReportBackend.services.impl;
 
+import com.userreport.UserReportBackend.config.CacheConfig;
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
 import com.userreport.UserReportBackend.dto.user.*;
-import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.Role;
 import com.userreport.UserReportBackend.entity.UserEntity;
 import com.userreport.UserReportBackend.exception.UserNotFoundException;
-import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.exception.ValidationException;
+import com.userreport.UserReportBackend.repository.CollectionRepo;
+import com.userreport.UserReportBackend.repository.TargetRepo;
 import com.userreport.UserReportBackend.repository.UserRepo;
 import com.userreport.UserReportBackend.services.AuthService;
 import com.userreport.UserReportBackend.services.JWTservice;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
+import com.userreport.UserReportBackend.services.TokenRevocationService;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,17 +28,24 @@ import java.util.Map;
 @Service
 public class AuthServiceImpl implements AuthService {
     private final UserRepo userRepo;
-    private final BranchRepo branchRepo;
+    private final ReferenceDataService referenceDataService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JWTservice jwtservice;
+    private final TokenRevocationService tokenRevocationService;
+    private final TargetRepo targetRepo;
+    private final CollectionRepo collectionRepo;
 
-    public AuthServiceImpl(UserRepo userRepo, BranchRepo branchRepo, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JWTservice jwtservice) {
+    public AuthServiceImpl(UserRepo userRepo, ReferenceDataService referenceDataService, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JWTservice jwtservice,
+                           TokenRevocationService tokenRevocationService, TargetRepo targetRepo, CollectionRepo collectionRepo) {
         this.userRepo = userRepo;
-        this.branchRepo = branchRepo;
+        this.referenceDataService = referenceDataService;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtservice = jwtservice;
+        this.tokenRevocationService = tokenRevocationService;
+        this.targetRepo = targetRepo;
+        this.collectionRepo = collectionRepo;
     }
 
     @Override
@@ -52,8 +65,10 @@ public class AuthServiceImpl implements AuthService {
         String branchName = userData.getUsername().toUpperCase();
 
         // Find the branch in the database
-        BranchEntity branch = branchRepo.findByBrnNameIgnoreCase(branchName)
-                .orElseThrow(() -> new RuntimeException("Branch '" + branchName + "' not found. Please contact administrator."));
+        BranchInfoDTO branch = referenceDataService.getBranchByName(branchName);
+        if (branch == null) {
+            throw new RuntimeException("Branch '" + branchName + "' not found. Please contact administrator.");
+        }
 
         branchId = branch.getId();
 
@@ -119,20 +134,29 @@ public class AuthServiceImpl implements AuthService {
 
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, allEntries = true)
     public boolean deleteUser(Long userId) {
         if (userRepo.existsById(userId)) {
+            // sdb_target/sdb_collection are partitioned and have no foreign keys, so guard their audit columns here
+            if (targetRepo.existsByCreatedByIdOrModifyById(userId, userId)
+                    || collectionRepo.existsByCreatedByIdOrModifyById(userId, userId)) {
+                throw new ValidationException("User with id " + userId + " has created or modified targets or collections and cannot be deleted");
+            }
             userRepo.deleteById(userId);
+            tokenRevocationService.revoke(userId);
             return true;
         }
         throw new UserNotFoundException("User not found with id: " + userId);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS, allEntries = true)
     public boolean updateUserRole(Long userId, Role role) {
         return userRepo.findById(userId)
                 .map(user -> {
                     user.setRole(role);
                     userRepo.save(user);
+                    tokenRevocationService.revoke(userId);
                     return true;
                 })
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
@@ -149,6 +173,8 @@ public class AuthServiceImpl implements AuthService {
         }
 
         Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId());
+        claims.put("ver", tokenRevocationService.currentVersion(user.getId())); // Checked by JWTFilter against revocations
         claims.put("role", user.getRole().name());
         claims.put("email", user.getEmail());
         claims.put("name", user.getName());
@@ -157,7 +183,7 @@ public class AuthServiceImpl implements AuthService {
         if (user.getBranchId() != null) {
             claims.put("branchId", user.getBranchId());
             // Also include branch name for easier access
-            BranchEntity branch = branchRepo.findById(user.getBranchId()).orElse(null);
+            BranchInfoDTO branch = referenceDataService.getBranchById(user.getBranchId());
             if (branch != null) {
                 claims.put("branchName", branch.getBrnName());
             }
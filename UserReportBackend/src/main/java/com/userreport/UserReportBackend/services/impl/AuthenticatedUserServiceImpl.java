@@ -0,0 +1,26 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.config.CacheConfig;
+import com.userreport.UserReportBackend.dto.user.AuthenticatedUser;
+import com.userreport.UserReportBackend.repository.UserRepo;
+import com.userreport.UserReportBackend.services.AuthenticatedUserService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AuthenticatedUserServiceImpl implements AuthenticatedUserService {
+    private final UserRepo userRepo;
+
+    public AuthenticatedUserServiceImpl(UserRepo userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    // Short-lived cache (security.principal-cache.ttl), evicted by AuthServiceImpl.deleteUser/updateUserRole
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS, unless = "#result == null")
+    public AuthenticatedUser loadByUsername(String username) {
+        return userRepo.findByUsername(username)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), user.getBranchId()))
+                .orElse(null);
+    }
+}
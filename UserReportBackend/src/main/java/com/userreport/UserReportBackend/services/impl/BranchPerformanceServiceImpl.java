@@ -0,0 +1,215 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
+import com.userreport.UserReportBackend.dto.performance.BranchPerformanceDTO;
+import com.userreport.UserReportBackend.dto.performance.PerformanceSnapshotRowView;
+import com.userreport.UserReportBackend.dto.performance.RollupConsistencyReportDTO;
+import com.userreport.UserReportBackend.dto.performance.RollupRowView;
+import com.userreport.UserReportBackend.dto.performance.VarianceReportDTO;
+import com.userreport.UserReportBackend.entity.BranchEntity;
+import com.userreport.UserReportBackend.entity.BranchPerformanceEntity;
+import com.userreport.UserReportBackend.repository.BranchPerformanceRepo;
+import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.TargetRepo;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class BranchPerformanceServiceImpl implements BranchPerformanceService {
+    private final BranchPerformanceRepo branchPerformanceRepo;
+    private final BranchRepo branchRepo;
+    private final TargetRepo targetRepo;
+    private final ReferenceDataService referenceDataService;
+    private final BranchPerformanceSnapshot snapshot;
+
+    public BranchPerformanceServiceImpl(BranchPerformanceRepo branchPerformanceRepo, BranchRepo branchRepo,
+                                        TargetRepo targetRepo, ReferenceDataService referenceDataService,
+                                        BranchPerformanceSnapshot snapshot) {
+        this.branchPerformanceRepo = branchPerformanceRepo;
+        this.branchRepo = branchRepo;
+        this.targetRepo = targetRepo;
+        this.referenceDataService = referenceDataService;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    @Transactional
+    public void refresh(Long branchId, Integer year, Integer month) {
+        // Sum and write in one statement, a separate read-then-save would let concurrent writers overwrite each other
+        if (branchPerformanceRepo.upsertRollupRow(branchId, year, month, LocalDateTime.now()) == 0) {
+            // Nothing left for this branch and month, so the rollup row goes too
+            branchPerformanceRepo.deleteEmptyRollupRow(branchId, year, month);
+        }
+        publish(BranchPerformanceSnapshot.Scope.row(branchId, year, month),
+                branchPerformanceRepo.findSnapshotRow(branchId, year, month).stream().toList());
+    }
+
+    @Override
+    @Transactional
+    public void refreshMonth(Integer year, Integer month) {
+        rebuild(year, month);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        return rebuild(null, null);
+    }
+
+    // Not read-only, the snapshot read is a locking read
+    @Override
+    @Transactional
+    public int loadSnapshot() {
+        List<PerformanceSnapshotRowView> rows = branchPerformanceRepo.findSnapshotRows(null, null);
+        publish(BranchPerformanceSnapshot.Scope.period(null, null), rows);
+        return rows.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RollupConsistencyReportDTO checkConsistency() {
+        List<RollupRowView> expectedRows = branchPerformanceRepo.computeRollupRows(null, null);
+        Map<String, BranchPerformanceEntity> actualRows = branchPerformanceRepo.findAll().stream()
+                .collect(Collectors.toMap(
+                        row -> key(row.getBranch().getId(), row.getPerfYear(), row.getPerfMonth()),
+                        Function.identity()));
+        int rollupRows = actualRows.size();
+
+        List<String> mismatches = new ArrayList<>();
+        for (RollupRowView expected : expectedRows) {
+            String key = key(expected.getBranchId(), expected.getYear(), expected.getMonth());
+            BranchPerformanceEntity actual = actualRows.remove(key);
+            if (actual == null) {
+                mismatches.add(key + ": missing from rollup");
+            } else if (actual.getTarget().compareTo(expected.getTarget()) != 0
+                    || actual.getCollection().compareTo(expected.getCollection()) != 0) {
+                mismatches.add(key + ": rollup has target " + actual.getTarget() + ", collection " + actual.getCollection()
+                        + " but source has target " + expected.getTarget() + ", collection " + expected.getCollection());
+            }
+        }
+        actualRows.keySet().forEach(key -> mismatches.add(key + ": no source rows"));
+
+        return new RollupConsistencyReportDTO(expectedRows.size(), rollupRows, mismatches.isEmpty(), mismatches);
+    }
+
+    @Override
+    @Transactional
+    public void onBranchRegionChanged(Long branchId) {
+        BranchEntity branch = branchRepo.findById(branchId)
+                .orElseThrow(() -> new RuntimeException("Branch not found with id: " + branchId));
+        branchPerformanceRepo.updateRegionForBranch(branchId, branch.getRegion());
+        publish(BranchPerformanceSnapshot.Scope.branch(branchId), branchPerformanceRepo.findSnapshotRowsByBranchId(branchId));
+    }
+
+    @Override
+    @Transactional
+    public void onBranchDeleted(Long branchId) {
+        branchPerformanceRepo.deleteByBranchId(branchId);
+        publish(BranchPerformanceSnapshot.Scope.branch(branchId), List.of());
+    }
+
+    @Override
+    @Transactional
+    public void onRegionDeleted(Long regionId) {
+        branchPerformanceRepo.deleteByRegionId(regionId);
+        publish(BranchPerformanceSnapshot.Scope.region(regionId), List.of());
+    }
+
+    @Override
+    public List<BranchPerformanceDTO> getPerformanceByYear(Integer year) {
+        return toPerformanceDTOs(snapshot.rows(year, null));
+    }
+
+    @Override
+    public List<BranchPerformanceDTO> getPerformanceByRegionIdAndYear(Long regionId, Integer year) {
+        return toPerformanceDTOs(snapshot.rows(year, regionId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<VarianceReportDTO> getVarianceReport(Long regionId, Integer year, Integer month) {
+        if (month != null && (month < 1 || month > 12)) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        return targetRepo.findVarianceReport(regionId, year, month);
+    }
+
+    // Replace the rollup rows matching the (nullable) year/month filter with freshly computed ones
+    // The delete locks the old rows and the INSERT ... SELECT reads the source rows with locking reads,
+    // so a concurrent upload of the same month cannot be summed from a stale view and then overwritten
+    private int rebuild(Integer year, Integer month) {
+        branchPerformanceRepo.deleteByYearAndMonth(year, month);
+        int inserted = branchPerformanceRepo.insertRollupRows(year, month, LocalDateTime.now());
+        publish(BranchPerformanceSnapshot.Scope.period(year, month),
+                inserted == 0 ? List.of() : branchPerformanceRepo.findSnapshotRows(year, month));
+        return inserted;
+    }
+
+    // Names come from the reference data cache, ordered by month then branch name like the old rollup query
+    private List<BranchPerformanceDTO> toPerformanceDTOs(List<BranchPerformanceSnapshot.Row> rows) {
+        Map<Long, BranchInfoDTO> branches = new HashMap<>();
+        referenceDataService.getAllBranches().forEach(branch -> branches.put(branch.getId(), branch));
+
+        List<BranchPerformanceDTO> performance = new ArrayList<>(rows.size());
+        for (BranchPerformanceSnapshot.Row row : rows) {
+            BranchInfoDTO branch = branches.get(row.branchId);
+            if (branch == null) {
+                continue;
+            }
+            performance.add(new BranchPerformanceDTO(row.branchId, branch.getBrnName(), row.regionId, branch.getRgnName(),
+                    row.year, row.month,
+                    MonthlyCentsTotals.toAmount(row.targetCents),
+                    MonthlyCentsTotals.toAmount(row.collectionCents),
+                    MonthlyCentsTotals.toAmount(row.targetCents - row.collectionCents),
+                    MonthlyCentsTotals.percentage(row.collectionCents, row.targetCents)));
+        }
+        performance.sort(Comparator.comparing(BranchPerformanceDTO::getMonth).thenComparing(BranchPerformanceDTO::getBranchName));
+        return performance;
+    }
+
+    private BranchPerformanceSnapshot.Row toSnapshotRow(PerformanceSnapshotRowView row) {
+        return new BranchPerformanceSnapshot.Row(row.getBranchId(), row.getRegionId(), row.getYear(),
+                row.getMonth(), row.getTarget(), row.getCollection());
+    }
+
+    // Hand the rows in scope, as read back by this transaction after its statements, to the snapshot once the
+    // transaction commits. The version is taken here, while the statements' row locks are still held, and the
+    // snapshot uses it to drop changes that arrive after a newer one. No database work is left for the callback.
+    private void publish(BranchPerformanceSnapshot.Scope scope, List<PerformanceSnapshotRowView> rows) {
+        List<BranchPerformanceSnapshot.Row> snapshotRows = rows.stream()
+                .map(this::toSnapshotRow)
+                .collect(Collectors.toList());
+        long version = snapshot.begin();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshot.apply(scope, snapshotRows, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    snapshot.apply(scope, snapshotRows, version);
+                } else {
+                    snapshot.abandon(version);
+                }
+            }
+        });
+    }
+
+    private String key(Long branchId, Integer year, Integer month) {
+        return "branch " + branchId + " " + year + "-" + month;
+    }
+}
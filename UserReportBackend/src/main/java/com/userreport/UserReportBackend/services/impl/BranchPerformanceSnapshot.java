@@ -0,0 +1,284 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory copy of the sdb_branch_performance rollup (one row per branch and month), held as one
+ * primitive array per column with amounts in long cents. It is loaded at startup and updated by
+ * BranchPerformanceServiceImpl once each rollup change has committed, so dashboard, performance and
+ * region total reads are array scans instead of database queries.
+ * Every change publishes a new set of columns (copy-on-write), readers never lock. Changes carry a version
+ * taken in commit order and a change is not applied over the rows of a newer one.
+ * The copy is per instance and only sees commits made through this JVM. A multi-instance deployment
+ * would need a shared store, or a reload on every instance, to keep the copies in step.
+ */
+@Component
+class BranchPerformanceSnapshot {
+    private final ReportEngine reportEngine;
+    private volatile Columns columns = new Columns(0);
+    // Change versions, guarded by this
+    private long lastVersion;
+    private final TreeSet<Long> pending = new TreeSet<>();
+    private final List<Fence> fences = new ArrayList<>();
+
+    BranchPerformanceSnapshot(ReportEngine reportEngine) {
+        this.reportEngine = reportEngine;
+    }
+
+    // Version of a rollup change. Taken after the change's statements, while its transaction still holds their
+    // row locks, so two changes to the same rows are numbered in the order they commit.
+    synchronized long begin() {
+        long version = ++lastVersion;
+        pending.add(version);
+        return version;
+    }
+
+    // The change was rolled back and will never be applied
+    synchronized void abandon(long version) {
+        pending.remove(version);
+        pruneFences();
+    }
+
+    // Replace the rows in scope with the rows the change read back in its transaction. Commit callbacks can run
+    // in any order, so rows a newer change has already applied are left alone.
+    synchronized void apply(Scope scope, List<Row> rows, long version) {
+        pending.remove(version);
+        List<Fence> newer = new ArrayList<>();
+        for (Fence fence : fences) {
+            if (fence.version > version) {
+                newer.add(fence);
+            }
+        }
+
+        Columns current = columns;
+        List<Row> added = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (!covers(newer, row.branchId, row.regionId, row.year, row.month)) {
+                added.add(row);
+            }
+        }
+        columns = current.copy(i -> !scope.matches(current.branchIds[i], current.regionIds[i], current.years[i], current.months[i])
+                || covers(newer, current.branchIds[i], current.regionIds[i], current.years[i], current.months[i]), added);
+
+        fences.add(new Fence(scope, version));
+        pruneFences();
+    }
+
+    private static boolean covers(List<Fence> fences, long branchId, long regionId, int year, int month) {
+        for (Fence fence : fences) {
+            if (fence.scope.matches(branchId, regionId, year, month)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A fence only matters while a change older than it can still be applied
+    private void pruneFences() {
+        long oldestPending = pending.isEmpty() ? Long.MAX_VALUE : pending.first();
+        fences.removeIf(fence -> fence.version < oldestPending);
+    }
+
+    int size() {
+        return columns.size;
+    }
+
+    // Target/collection totals of a year per branch id, the scan is split on the report pool for large snapshots
+    Map<Long, Totals> totalsByBranch(int year) {
+        Columns c = columns;
+        return reportEngine.aggregate(c.size, HashMap::new,
+                (totals, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        if (c.years[i] == year) {
+                            totals.computeIfAbsent(c.branchIds[i], id -> new Totals()).add(c, i);
+                        }
+                    }
+                },
+                (left, right) -> {
+                    right.forEach((branchId, totals) -> left.merge(branchId, totals, Totals::merge));
+                    return left;
+                });
+    }
+
+    // Target/collection totals of a region, year and month left null are not filtered on
+    Totals totalsByRegion(long regionId, Integer year, Integer month) {
+        Columns c = columns;
+        Totals totals = new Totals();
+        for (int i = 0; i < c.size; i++) {
+            if (c.regionIds[i] == regionId && matches(year, c.years[i]) && matches(month, c.months[i])) {
+                totals.add(c, i);
+            }
+        }
+        return totals;
+    }
+
+    // Branch/month rows of a year, optionally only those of one region
+    List<Row> rows(int year, Long regionId) {
+        Columns c = columns;
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < c.size; i++) {
+            if (c.years[i] == year && (regionId == null || c.regionIds[i] == regionId)) {
+                rows.add(c.row(i));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean matches(Integer filter, int value) {
+        return filter == null || filter == value;
+    }
+
+    // Rows a change covers, a null field is not filtered on
+    static class Scope {
+        private final Long branchId;
+        private final Long regionId;
+        private final Integer year;
+        private final Integer month;
+
+        private Scope(Long branchId, Long regionId, Integer year, Integer month) {
+            this.branchId = branchId;
+            this.regionId = regionId;
+            this.year = year;
+            this.month = month;
+        }
+
+        static Scope row(long branchId, int year, int month) {
+            return new Scope(branchId, null, year, month);
+        }
+
+        static Scope period(Integer year, Integer month) {
+            return new Scope(null, null, year, month);
+        }
+
+        static Scope branch(long branchId) {
+            return new Scope(branchId, null, null, null);
+        }
+
+        static Scope region(long regionId) {
+            return new Scope(null, regionId, null, null);
+        }
+
+        boolean matches(long branchId, long regionId, int year, int month) {
+            return (this.branchId == null || this.branchId == branchId)
+                    && (this.regionId == null || this.regionId == regionId)
+                    && BranchPerformanceSnapshot.matches(this.year, year) && BranchPerformanceSnapshot.matches(this.month, month);
+        }
+    }
+
+    // An applied change, kept so that older changes to the same rows arriving later are ignored
+    private static final class Fence {
+        final Scope scope;
+        final long version;
+
+        Fence(Scope scope, long version) {
+            this.scope = scope;
+            this.version = version;
+        }
+    }
+
+    static class Row {
+        final long branchId;
+        final long regionId;
+        final int year;
+        final int month;
+        final long targetCents;
+        final long collectionCents;
+
+        Row(long branchId, long regionId, int year, int month, BigDecimal target, BigDecimal collection) {
+            this(branchId, regionId, year, month, toCents(target), toCents(collection));
+        }
+
+        Row(long branchId, long regionId, int year, int month, long targetCents, long collectionCents) {
+            this.branchId = branchId;
+            this.regionId = regionId;
+            this.year = year;
+            this.month = month;
+            this.targetCents = targetCents;
+            this.collectionCents = collectionCents;
+        }
+
+        private static long toCents(BigDecimal amount) {
+            return amount == null ? 0 : amount.movePointRight(2).longValueExact();
+        }
+    }
+
+    // Due is target minus collection, as in the rollup
+    static class Totals {
+        long targetCents;
+        long collectionCents;
+
+        private void add(Columns c, int i) {
+            targetCents += c.targetCents[i];
+            collectionCents += c.collectionCents[i];
+        }
+
+        private Totals merge(Totals other) {
+            targetCents += other.targetCents;
+            collectionCents += other.collectionCents;
+            return this;
+        }
+
+        long dueCents() {
+            return targetCents - collectionCents;
+        }
+    }
+
+    private static final class Columns {
+        long[] branchIds;
+        long[] regionIds;
+        int[] years;
+        int[] months;
+        long[] targetCents;
+        long[] collectionCents;
+        int size;
+
+        Columns(int capacity) {
+            branchIds = new long[capacity];
+            regionIds = new long[capacity];
+            years = new int[capacity];
+            months = new int[capacity];
+            targetCents = new long[capacity];
+            collectionCents = new long[capacity];
+        }
+
+        boolean isRow(int i, long branchId, int year, int month) {
+            return branchIds[i] == branchId && years[i] == year && months[i] == month;
+        }
+
+        Row row(int i) {
+            return new Row(branchIds[i], regionIds[i], years[i], months[i], targetCents[i], collectionCents[i]);
+        }
+
+        // New columns holding the kept rows followed by the added ones
+        Columns copy(IntPredicate keep, List<Row> added) {
+            Columns copy = new Columns(size + added.size());
+            for (int i = 0; i < size; i++) {
+                if (keep.test(i)) {
+                    copy.add(branchIds[i], regionIds[i], years[i], months[i], targetCents[i], collectionCents[i]);
+                }
+            }
+            for (Row row : added) {
+                copy.add(row.branchId, row.regionId, row.year, row.month, row.targetCents, row.collectionCents);
+            }
+            return copy;
+        }
+
+        private void add(long branchId, long regionId, int year, int month, long target, long collection) {
+            branchIds[size] = branchId;
+            regionIds[size] = regionId;
+            years[size] = year;
+            months[size] = month;
+            targetCents[size] = target;
+            collectionCents[size] = collection;
+            size++;
+        }
+    }
+}
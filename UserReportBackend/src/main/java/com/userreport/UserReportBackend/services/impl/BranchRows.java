@@ -0,0 +1,27 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.exception.ValidationException;
+import com.userreport.UserReportBackend.repository.BranchRepo;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Branch existence check for the target/collection writers, which have no foreign key to rely on since V4
+final class BranchRows {
+
+    private BranchRows() {
+    }
+
+    // Share-locks the branches until commit, so a concurrent branch delete waits, and rejects ids that no longer exist
+    static void lockExisting(BranchRepo branchRepo, Collection<Long> branchIds) {
+        Set<Long> missing = new TreeSet<>(branchIds);
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.removeAll(branchRepo.lockExistingIds(missing));
+        if (!missing.isEmpty()) {
+            throw new ValidationException("Branch id(s) no longer exist: " + missing);
+        }
+    }
+}
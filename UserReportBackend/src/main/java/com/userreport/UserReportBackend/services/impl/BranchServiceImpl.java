@@ -3,21 +3,31 @@ package com.userreport.UserReportBackend.services.impl;
 import com.userreport.UserReportBackend.dto.branch.BranchResponseDTO;
 import com.userreport.UserReportBackend.dto.branch.BranchSaveRequestDTO;
 import com.userreport.UserReportBackend.dto.branch.BranchSaveResponseDTO;
+import com.userreport.UserReportBackend.config.CacheConfig;
 import com.userreport.UserReportBackend.dto.branch.BranchSummaryResponseDTO;
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
 import com.userreport.UserReportBackend.dto.info.CollectionInfoDTO;
+import com.userreport.UserReportBackend.dto.info.LatestCollectionView;
+import com.userreport.UserReportBackend.dto.info.LatestTargetView;
 import com.userreport.UserReportBackend.dto.info.RegionInfoDTO;
 import com.userreport.UserReportBackend.dto.info.TargetInfoDTO;
 import com.userreport.UserReportBackend.entity.BranchEntity;
-import com.userreport.UserReportBackend.entity.CollectionEntity;
-import com.userreport.UserReportBackend.entity.TargetEntity;
+import com.userreport.UserReportBackend.exception.ValidationException;
 import com.userreport.UserReportBackend.repository.BranchRepo;
 import com.userreport.UserReportBackend.repository.CollectionRepo;
 import com.userreport.UserReportBackend.repository.RegionRepo;
 import com.userreport.UserReportBackend.repository.TargetRepo;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
 import com.userreport.UserReportBackend.services.BranchService;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,15 +36,22 @@ public class BranchServiceImpl implements BranchService {
     private final RegionRepo regionRepo;
     private final TargetRepo targetRepo;
     private final CollectionRepo collectionRepo;
+    private final BranchPerformanceService branchPerformanceService;
+    private final ReferenceDataService referenceDataService;
 
-    public BranchServiceImpl(BranchRepo branchRepo, RegionRepo regionRepo, TargetRepo targetRepo, CollectionRepo collectionRepo) {
+    public BranchServiceImpl(BranchRepo branchRepo, RegionRepo regionRepo, TargetRepo targetRepo, CollectionRepo collectionRepo,
+                             BranchPerformanceService branchPerformanceService, ReferenceDataService referenceDataService) {
         this.branchRepo = branchRepo;
         this.regionRepo = regionRepo;
         this.targetRepo = targetRepo;
         this.collectionRepo = collectionRepo;
+        this.branchPerformanceService = branchPerformanceService;
+        this.referenceDataService = referenceDataService;
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES,
+            CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public BranchSaveResponseDTO saveBranch(BranchSaveRequestDTO branchSaveRequestDTO) {
         if (branchSaveRequestDTO.getBrnName() == null || branchSaveRequestDTO.getBrnName().isEmpty()) {
             return new BranchSaveResponseDTO(null, "Branch name cannot be empty");
@@ -45,17 +62,18 @@ public class BranchServiceImpl implements BranchService {
         if (branchSaveRequestDTO.getRegion() == null) {
             return new BranchSaveResponseDTO(null, "Region cannot be null");
         }
-        if (branchRepo.existsByBrnName(branchSaveRequestDTO.getBrnName().toUpperCase())) {
+        if (referenceDataService.getBranchByName(branchSaveRequestDTO.getBrnName()) != null) {
             return new BranchSaveResponseDTO(null, "Branch already exists");
         }
         String regionName = branchSaveRequestDTO.getRegion().toUpperCase();
-        if (!regionRepo.existsByRgnName(regionName)) {
+        RegionInfoDTO region = referenceDataService.getRegionByName(regionName);
+        if (region == null) {
             return new BranchSaveResponseDTO(null, "Region with name " + regionName + " does not exist");
         }
         BranchEntity branchEntity = new BranchEntity(
                 branchSaveRequestDTO.getBrnName().toUpperCase(),
                 branchSaveRequestDTO.getBrnDes(),
-                regionRepo.findByRgnName(regionName)
+                regionRepo.getReferenceById(region.getId())
         );
         try {
             branchRepo.save(branchEntity);
@@ -66,6 +84,7 @@ public class BranchServiceImpl implements BranchService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BranchEntity> getAllBranches() {
         List<BranchEntity> branches = branchRepo.findAll();
         if (branches.isEmpty()) {
@@ -75,40 +94,35 @@ public class BranchServiceImpl implements BranchService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BranchResponseDTO> getAllBranchResponses() {
-        List<BranchEntity> branches = branchRepo.findAll();
-        return branches.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return convertToResponseDTOs(referenceDataService.getAllBranches());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BranchSummaryResponseDTO> getAllBranchSummaries() {
-        List<BranchEntity> branches = branchRepo.findAll();
-        return branches.stream()
-                .map(this::convertToSummaryResponseDTO)
-                .collect(Collectors.toList());
+        return branchRepo.findAllBranchSummaries();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BranchResponseDTO getBranchResponseById(Long id) {
-        BranchEntity branch = branchRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Branch not found with id: " + id));
-        return convertToResponseDTO(branch);
+        BranchInfoDTO branch = referenceDataService.getBranchById(id);
+        if (branch == null) {
+            throw new RuntimeException("Branch not found with id: " + id);
+        }
+        return convertToResponseDTOs(List.of(branch)).get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BranchResponseDTO> getBranchResponsesByRegionId(Long regionId) {
-        List<BranchEntity> branches = branchRepo.findAll().stream()
-                .filter(branch -> regionId.equals(Long.valueOf(branch.getRegion().getId())))
-                .collect(Collectors.toList());
-
-        return branches.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return convertToResponseDTOs(referenceDataService.getBranchesByRegionId(regionId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BranchEntity> getBranchesByRegionId(Long regionId) {
         return branchRepo.findByRegionId(regionId);
     }
@@ -116,11 +130,21 @@ public class BranchServiceImpl implements BranchService {
 
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES,
+            CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public void deleteBranch(Long id) {
-        if (!branchRepo.existsById(id)) {
+        // Locked before anything is read, so the checks below see every target/collection committed by a
+        // writer that held the branch row (there is no foreign key to refuse the delete)
+        if (branchRepo.lockIdForDelete(id).isEmpty()) {
             throw new RuntimeException("Branch not found");
         }
+        BranchEntity branch = branchRepo.getReferenceById(id);
+        if (targetRepo.existsByBranch(branch) || collectionRepo.existsByBranch(branch)) {
+            throw new ValidationException("Branch with id " + id + " has targets or collections and cannot be deleted");
+        }
         try {
+            branchPerformanceService.onBranchDeleted(id);
             branchRepo.deleteById(id);
         } catch (Exception e) {
             throw new RuntimeException("Error deleting branch: " + e.getMessage());
@@ -128,6 +152,8 @@ public class BranchServiceImpl implements BranchService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES,
+            CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public BranchSaveResponseDTO updateBranch(Long id, BranchSaveRequestDTO branchSaveRequestDTO) {
         BranchEntity existingBranch = branchRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Branch not found with id: " + id));
@@ -142,74 +168,65 @@ public class BranchServiceImpl implements BranchService {
             return new BranchSaveResponseDTO(null, "Region cannot be null");
         }
         String regionName = branchSaveRequestDTO.getRegion().toUpperCase();
-        if (!regionRepo.existsByRgnName(regionName)) {
+        RegionInfoDTO region = referenceDataService.getRegionByName(regionName);
+        if (region == null) {
             return new BranchSaveResponseDTO(null, "Region with name " + regionName + " does not exist");
         }
 
         existingBranch.setBrnName(branchSaveRequestDTO.getBrnName().toUpperCase());
         existingBranch.setBrnDes(branchSaveRequestDTO.getBrnDes());
-        existingBranch.setRegion(regionRepo.findByRgnName(regionName));
+        existingBranch.setRegion(regionRepo.getReferenceById(region.getId()));
 
         try {
             branchRepo.save(existingBranch);
+            branchPerformanceService.onBranchRegionChanged(id);
             return new BranchSaveResponseDTO("Branch updated successfully", null);
         } catch (Exception e) {
             return new BranchSaveResponseDTO(null, "Error updating branch: " + e.getMessage());
         }
     }
 
-    private BranchResponseDTO convertToResponseDTO(BranchEntity branch) {
-        BranchResponseDTO dto = new BranchResponseDTO();
-        dto.setId(branch.getId());
-        dto.setBrnName(branch.getBrnName());
-        dto.setBrnDes(branch.getBrnDes());
-
-        // Set region info
-        RegionInfoDTO regionInfo = new RegionInfoDTO();
-        regionInfo.setId(Long.valueOf(branch.getRegion().getId()));
-        regionInfo.setRgnName(branch.getRegion().getRgnName());
-        regionInfo.setRgnDes(branch.getRegion().getRgnDes());
-        dto.setRegion(regionInfo);
-
-        // Set target info if exists - get the latest target
-        List<TargetEntity> targets = targetRepo.findLatestByBranch(branch);
-        if (!targets.isEmpty()) {
-            TargetEntity target = targets.get(0); // Get the most recent target
-            TargetInfoDTO targetInfo = new TargetInfoDTO();
-            targetInfo.setId(target.getId());
-            targetInfo.setTarget(target.getTarget());
-            targetInfo.setCreatedDatetime(target.getCreatedDatetime());
-            targetInfo.setModifyDatetime(target.getModifyDatetime());
-            dto.setTarget(targetInfo);
-        }
-
-        // Set collection info if exists - get the latest collection
-        List<CollectionEntity> collections = collectionRepo.findLatestByBranch(branch);
-        if (!collections.isEmpty()) {
-            CollectionEntity collection = collections.get(0); // Get the most recent collection
-            CollectionInfoDTO collectionInfo = new CollectionInfoDTO();
-            collectionInfo.setId(collection.getId());
-            collectionInfo.setTarget(collection.getTarget());
-            collectionInfo.setDue(collection.getDue());
-            collectionInfo.setCollectionAmount(collection.getCollectionAmount());
-            collectionInfo.setPercentage(collection.getPercentage());
-            collectionInfo.setCreatedDatetime(collection.getCreatedDatetime());
-            collectionInfo.setModifyDatetime(collection.getModifyDatetime());
-            dto.setCollection(collectionInfo);
-        }
-
-        return dto;
-    }
+    // Builds the responses with two queries in total: branch and region details come from the
+    // reference data cache and the latest target/collection of every branch is fetched in one batch each
+    private List<BranchResponseDTO> convertToResponseDTOs(List<BranchInfoDTO> branches) {
+        if (branches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> branchIds = branches.stream().map(BranchInfoDTO::getId).collect(Collectors.toList());
+
+        Map<Long, TargetInfoDTO> latestTargets = new HashMap<>();
+        for (LatestTargetView target : targetRepo.findLatestByBranchIds(branchIds)) {
+            latestTargets.put(target.getBranchId(), new TargetInfoDTO(
+                    target.getId(), target.getTarget(), target.getCreatedDatetime(), target.getModifyDatetime()));
+        }
+
+        Map<Long, CollectionInfoDTO> latestCollections = new HashMap<>();
+        for (LatestCollectionView collection : collectionRepo.findLatestByBranchIds(branchIds)) {
+            latestCollections.put(collection.getBranchId(), new CollectionInfoDTO(
+                    collection.getId(), collection.getTarget(), collection.getDue(), collection.getCollectionAmount(),
+                    collection.getPercentage(), collection.getCreatedDatetime(), collection.getModifyDatetime()));
+        }
+
+        List<BranchResponseDTO> responses = new ArrayList<>(branches.size());
+        for (BranchInfoDTO branchInfo : branches) {
+            BranchResponseDTO dto = new BranchResponseDTO();
+            dto.setId(branchInfo.getId());
+            dto.setBrnName(branchInfo.getBrnName());
+            dto.setBrnDes(branchInfo.getBrnDes());
 
-    private BranchSummaryResponseDTO convertToSummaryResponseDTO(BranchEntity branch) {
-        BranchSummaryResponseDTO dto = new BranchSummaryResponseDTO();
-        dto.setId(branch.getId());
-        dto.setBrnName(branch.getBrnName());
-        dto.setBrnDes(branch.getBrnDes());
-        dto.setRegionName(branch.getRegion().getRgnName());
-        dto.setHasTarget(targetRepo.existsByBranch(branch));
-        dto.setHasCollection(collectionRepo.existsByBranch(branch));
-        return dto;
+            // Set region info
+            RegionInfoDTO regionInfo = new RegionInfoDTO();
+            regionInfo.setId(branchInfo.getRegionId());
+            regionInfo.setRgnName(branchInfo.getRgnName());
+            regionInfo.setRgnDes(branchInfo.getRgnDes());
+            dto.setRegion(regionInfo);
+
+            // Target and collection stay null when the branch has none
+            dto.setTarget(latestTargets.get(branchInfo.getId()));
+            dto.setCollection(latestCollections.get(branchInfo.getId()));
+            responses.add(dto);
+        }
+        return responses;
     }
 
 }
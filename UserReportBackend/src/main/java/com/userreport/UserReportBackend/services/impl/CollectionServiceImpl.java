@@ -1,44 +1,77 @@
 package com.userreport.UserReportBackend.services.impl;
 
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
 import com.userreport.UserReportBackend.dto.collection.*;
+import com.userreport.UserReportBackend.dto.user.AuthenticatedUser;
 import com.userreport.UserReportBackend.entity.CollectionEntity;
 import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.TargetEntity;
 import com.userreport.UserReportBackend.entity.UserEntity;
 import com.userreport.UserReportBackend.repository.CollectionRepo;
 import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.BulkCollectionWriter;
 import com.userreport.UserReportBackend.repository.UserRepo;
 import com.userreport.UserReportBackend.services.CollectionService;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
 import com.userreport.UserReportBackend.services.ExcelUploadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class CollectionServiceImpl implements CollectionService {
+    // Summary total columns in MonthlyCentsTotals
+    private static final int TARGET = 0;
+    private static final int COLLECTION = 1;
+    private static final int DUE = 2;
+    // One collection per branch and period
+    private static final String UNIQUE_BRANCH_YEAR_MONTH = "uk_collection_branch_year_month";
 
     private final CollectionRepo collectionRepo;
     private final BranchRepo branchRepo;
     private final UserRepo userRepo;
     private final ExcelUploadService excelUploadService;
-
-    public CollectionServiceImpl(CollectionRepo collectionRepo, BranchRepo branchRepo, UserRepo userRepo, ExcelUploadService excelUploadService) {
+    private final BulkCollectionWriter bulkCollectionWriter;
+    private final BranchPerformanceService branchPerformanceService;
+    private final BranchPerformanceSnapshot branchPerformanceSnapshot;
+    private final ReportEngine reportEngine;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public CollectionServiceImpl(CollectionRepo collectionRepo, BranchRepo branchRepo, UserRepo userRepo, ExcelUploadService excelUploadService,
+                                 BulkCollectionWriter bulkCollectionWriter, BranchPerformanceService branchPerformanceService,
+                                 BranchPerformanceSnapshot branchPerformanceSnapshot, ReportEngine reportEngine,
+                                 @Value("${pagination.default-size:100}") int defaultPageSize,
+                                 @Value("${pagination.max-size:500}") int maxPageSize) {
         this.collectionRepo = collectionRepo;
         this.branchRepo = branchRepo;
         this.userRepo = userRepo;
         this.excelUploadService = excelUploadService;
+        this.bulkCollectionWriter = bulkCollectionWriter;
+        this.branchPerformanceService = branchPerformanceService;
+        this.branchPerformanceSnapshot = branchPerformanceSnapshot;
+        this.reportEngine = reportEngine;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
+    // The write and its rollup refresh commit or roll back together
     @Override
+    @Transactional
     public CollectionSaveResponseDTO saveCollection(CollectionSaveRequestDTO collectionSaveRequestDTO) {
 
         if (collectionSaveRequestDTO.getCollectionAmount() == null || collectionSaveRequestDTO.getCollectionAmount().compareTo(BigDecimal.ZERO) < 0) {
@@ -54,11 +87,11 @@ public class CollectionServiceImpl implements CollectionService {
             return new CollectionSaveResponseDTO(null, "Collection month must be between 1 and 12");
         }
 
-        // Check if branch exists
-        BranchEntity branch = branchRepo.findById(collectionSaveRequestDTO.getBranchId()).orElse(null);
-        if (branch == null) {
+        // Check if branch exists, the share lock keeps it from being deleted before this save commits
+        if (branchRepo.lockExistingIds(List.of(collectionSaveRequestDTO.getBranchId())).isEmpty()) {
             return new CollectionSaveResponseDTO(null, "Branch not found");
         }
+        BranchEntity branch = branchRepo.getReferenceById(collectionSaveRequestDTO.getBranchId());
 
         // Get target entity
         TargetEntity target = branchRepo.findByBranchIdAndYearAndMonth(
@@ -71,58 +104,44 @@ public class CollectionServiceImpl implements CollectionService {
             return new CollectionSaveResponseDTO(null, "Target not found for this branch, year and month");
         }
 
-        // Calculate due amount
-        BigDecimal dueAmount = target.getTargetAmount().subtract(collectionSaveRequestDTO.getCollectionAmount());
-
-        // Check if collection already exists for this branch, year, and month
-        if (collectionRepo.existsByBranchAndCollectionYearAndCollectionMonth(branch,
-                collectionSaveRequestDTO.getCollectionYear(), collectionSaveRequestDTO.getCollectionMonth())) {
-            return new CollectionSaveResponseDTO(null, "Collection already exists for this branch in " +
-                    getMonthName(collectionSaveRequestDTO.getCollectionMonth()) + " " + collectionSaveRequestDTO.getCollectionYear());
-        }
-
         // Get current user
         UserEntity currentUser = getCurrentUser();
         if (currentUser == null) {
             return new CollectionSaveResponseDTO(null, "User not authenticated");
         }
 
-        try {
-            // Calculate percentage
-            BigDecimal percentage = calculatePercentage(
-                    collectionSaveRequestDTO.getCollectionAmount(),
-                    target.getTargetAmount()
-            );
-
-            CollectionEntity collectionEntity = new CollectionEntity(
-                    target.getTargetAmount(),
-                    dueAmount,
-                    collectionSaveRequestDTO.getCollectionAmount(),
-                    collectionSaveRequestDTO.getCollectionYear(),
-                    collectionSaveRequestDTO.getCollectionMonth(),
-                    branch,
-                    currentUser
-            );
-
-            // Set percentage explicitly
-            collectionEntity.setPercentage(percentage);
+        // Due and percentage are derived by the entity
+        CollectionEntity collectionEntity = new CollectionEntity(
+                target.getTargetAmount(),
+                collectionSaveRequestDTO.getCollectionAmount(),
+                collectionSaveRequestDTO.getCollectionYear(),
+                collectionSaveRequestDTO.getCollectionMonth(),
+                branch,
+                currentUser
+        );
 
+        try {
             collectionRepo.save(collectionEntity);
-            return new CollectionSaveResponseDTO("Collection saved successfully", null);
-        } catch (Exception e) {
-            return new CollectionSaveResponseDTO(null, "Error saving collection: " + e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // The insert itself is the duplicate check, any other integrity error goes back to the caller
+            if (!ConstraintViolations.isViolationOf(e, UNIQUE_BRANCH_YEAR_MONTH)) {
+                throw e;
+            }
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new CollectionSaveResponseDTO(null, "Collection already exists for this branch in " +
+                    getMonthName(collectionSaveRequestDTO.getCollectionMonth()) + " " + collectionSaveRequestDTO.getCollectionYear());
         }
+        branchPerformanceService.refresh(branch.getId(), collectionEntity.getCollectionYear(), collectionEntity.getCollectionMonth());
+        return new CollectionSaveResponseDTO("Collection saved successfully", null);
     }
 
     @Override
+    @Transactional
     public CollectionSaveResponseDTO updateCollection(Long id, CollectionUpdateRequestDTO collectionUpdateRequestDTO) {
         // Validation
         if (collectionUpdateRequestDTO.getTarget() == null || collectionUpdateRequestDTO.getTarget().compareTo(BigDecimal.ZERO) <= 0) {
             return new CollectionSaveResponseDTO(null, "Target amount must be greater than zero");
         }
-        if (collectionUpdateRequestDTO.getDue() == null || collectionUpdateRequestDTO.getDue().compareTo(BigDecimal.ZERO) < 0) {
-            return new CollectionSaveResponseDTO(null, "Due amount cannot be negative");
-        }
         if (collectionUpdateRequestDTO.getCollectionAmount() == null || collectionUpdateRequestDTO.getCollectionAmount().compareTo(BigDecimal.ZERO) < 0) {
             return new CollectionSaveResponseDTO(null, "Collection amount cannot be negative");
         }
@@ -146,57 +165,66 @@ public class CollectionServiceImpl implements CollectionService {
             return new CollectionSaveResponseDTO(null, "User not authenticated");
         }
 
-        try {
-            // Calculate percentage
-            BigDecimal percentage = calculatePercentage(collectionUpdateRequestDTO.getCollectionAmount(),
-                    collectionUpdateRequestDTO.getTarget());
+        // Remember the original period, the rollup row there has to be refreshed as well
+        Integer originalYear = existingCollection.getCollectionYear();
+        Integer originalMonth = existingCollection.getCollectionMonth();
 
-            existingCollection.setTarget(collectionUpdateRequestDTO.getTarget());
-            existingCollection.setDue(collectionUpdateRequestDTO.getDue());
-            existingCollection.setCollectionAmount(collectionUpdateRequestDTO.getCollectionAmount());
-            existingCollection.setPercentage(percentage);
+        // Due is derived from the amounts, a due sent in the request is ignored
+        existingCollection.applyAmounts(collectionUpdateRequestDTO.getTarget(), collectionUpdateRequestDTO.getCollectionAmount());
 
-            if (collectionUpdateRequestDTO.getCollectionYear() != null) {
-                existingCollection.setCollectionYear(collectionUpdateRequestDTO.getCollectionYear());
-            }
-            if (collectionUpdateRequestDTO.getCollectionMonth() != null) {
-                existingCollection.setCollectionMonth(collectionUpdateRequestDTO.getCollectionMonth());
-            }
+        if (collectionUpdateRequestDTO.getCollectionYear() != null) {
+            existingCollection.setCollectionYear(collectionUpdateRequestDTO.getCollectionYear());
+        }
+        if (collectionUpdateRequestDTO.getCollectionMonth() != null) {
+            existingCollection.setCollectionMonth(collectionUpdateRequestDTO.getCollectionMonth());
+        }
 
-            existingCollection.setModifyBy(currentUser);
-            existingCollection.setModifyDatetime(LocalDateTime.now());
+        existingCollection.setModifyBy(currentUser);
+        existingCollection.setModifyDatetime(LocalDateTime.now());
 
-            collectionRepo.save(existingCollection);
-            return new CollectionSaveResponseDTO("Collection updated successfully", null);
-        } catch (Exception e) {
-            return new CollectionSaveResponseDTO(null, "Error updating collection: " + e.getMessage());
+        try {
+            // Flushed here so a duplicate period fails at this call
+            collectionRepo.saveAndFlush(existingCollection);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isViolationOf(e, UNIQUE_BRANCH_YEAR_MONTH)) {
+                throw e;
+            }
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new CollectionSaveResponseDTO(null, "Collection already exists for this branch in " +
+                    getMonthName(existingCollection.getCollectionMonth()) + " " + existingCollection.getCollectionYear());
         }
+        refreshPerformance(existingCollection, originalYear, originalMonth);
+        return new CollectionSaveResponseDTO("Collection updated successfully", null);
     }
 
     @Override
+    @Transactional
     public void deleteCollection(Long id) {
-        if (!collectionRepo.existsById(id)) {
-            throw new RuntimeException("Collection not found");
-        }
+        CollectionEntity collection = collectionRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Collection not found"));
         try {
             collectionRepo.deleteById(id);
+            branchPerformanceService.refresh(collection.getBranch().getId(), collection.getCollectionYear(), collection.getCollectionMonth());
         } catch (Exception e) {
             throw new RuntimeException("Error deleting collection: " + e.getMessage());
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CollectionEntity> getAllCollections() {
         return collectionRepo.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CollectionEntity getCollectionById(Long id) {
         return collectionRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Collection not found with id: " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CollectionEntity getCollectionByBranchId(Long branchId) {
         List<CollectionEntity> collections = collectionRepo.findCollectionsByBranchId(branchId);
         if (collections.isEmpty()) {
@@ -209,6 +237,7 @@ public class CollectionServiceImpl implements CollectionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CollectionEntity getCollectionByBranchIdAndYearMonth(Long branchId, Integer year, Integer month) {
         return collectionRepo.findByBranchIdAndYearAndMonth(branchId, year, month)
                 .orElseThrow(() -> new RuntimeException("Collection not found for branch id: " + branchId +
@@ -216,181 +245,186 @@ public class CollectionServiceImpl implements CollectionService {
     }
 
 
+    // Answered from the in-memory performance rollup
     @Override
     public BigDecimal getTotalCollectionByRegionAndYearMonth(Long regionId, Integer year, Integer month) {
-        BigDecimal total = collectionRepo.getTotalCollectionByRegionAndYearMonth(regionId, year, month);
-        return total != null ? total : BigDecimal.ZERO;
+        return MonthlyCentsTotals.toAmount(branchPerformanceSnapshot.totalsByRegion(regionId, year, month).collectionCents);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MonthlyCollectionSummaryDTO getMonthlyCollectionSummary(Integer year, Integer month) {
         List<CollectionEntity> collections = collectionRepo.findByCollectionYearAndCollectionMonth(year, month);
         return createMonthlyCollectionSummary(year, month, collections);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MonthlyCollectionSummaryDTO getMonthlyCollectionSummaryByRegion(Long regionId, Integer year, Integer month) {
         List<CollectionEntity> collections = collectionRepo.findByRegionIdAndYearAndMonth(regionId, year, month);
         return createMonthlyCollectionSummary(year, month, collections);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public YearlyCollectionSummaryDTO getYearlyCollectionSummary(Integer year) {
         List<CollectionEntity> collections = collectionRepo.findByCollectionYear(year);
         return createYearlyCollectionSummary(year, collections);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public YearlyCollectionSummaryDTO getYearlyCollectionSummaryByRegion(Long regionId, Integer year) {
-        List<CollectionEntity> collections = collectionRepo.findByRegionId(regionId).stream()
-                .filter(c -> c.getCollectionYear().equals(year))
-                .collect(Collectors.toList());
+        List<CollectionEntity> collections = collectionRepo.findByRegionIdAndYear(regionId, year);
         return createYearlyCollectionSummary(year, collections);
     }
 
     @Override
+    @Transactional
     public void saveCollectionsFromExcel(MultipartFile file, int year, int month) {
         if (!excelUploadService.isValidExcelFile(file)) {
             throw new IllegalArgumentException("Invalid Excel file format");
         }
 
-        try {
-            // Fix: Change targetMonth to collectionMonth
-            if(!collectionRepo.findByCollectionYearAndCollectionMonth(year, month).isEmpty()) {
-                throw new IllegalArgumentException("Collections for " + getMonthName(month) + " " + year + " already exist. Please use update instead of save.");
-            } else {
-                List<CollectionEntity> collection = excelUploadService.getCollectionsFromExcel(
-                        file.getInputStream(), year, month);
-                collectionRepo.saveAll(collection);
-            }
+        // Fix: Change targetMonth to collectionMonth
+        if (!collectionRepo.findByCollectionYearAndCollectionMonth(year, month).isEmpty()) {
+            throw new IllegalArgumentException("Collections for " + getMonthName(month) + " " + year + " already exist. Please use update instead of save.");
+        }
+
+        // Rows are streamed from the sheet and saved chunk by chunk
+        try (InputStream inputStream = file.getInputStream()) {
+            excelUploadService.streamCollectionsFromExcel(inputStream, year, month, this::insertChunk);
         } catch (IOException e) {
             throw new RuntimeException("Failed to process Excel file", e);
         }
+        branchPerformanceService.refreshMonth(year, month);
     }
 
     @Override
+    @Transactional
     public void updateCollectionsFromExcel(MultipartFile file, int year, int month) {
         if (!excelUploadService.isValidExcelFile(file)) {
             throw new IllegalArgumentException("Invalid Excel file format");
         }
 
-        try {
-            // Check if collections exist for this year and month
-            List<CollectionEntity> existingCollections = collectionRepo.findByCollectionYearAndCollectionMonth(year, month);
-
-            if (existingCollections.isEmpty()) {
-                throw new IllegalArgumentException("No collections found for " + getMonthName(month) + " " + year + ". Please use save instead of update.");
-            }
-
-            // Get updated collections from Excel
-            List<CollectionEntity> updatedCollections = excelUploadService.updateCollectionsFromExcel(
-                    file.getInputStream(), year, month);
-
-            // Save the updated collections
-            collectionRepo.saveAll(updatedCollections);
+        // Check if collections exist for this year and month
+        if (collectionRepo.findByCollectionYearAndCollectionMonth(year, month).isEmpty()) {
+            throw new IllegalArgumentException("No collections found for " + getMonthName(month) + " " + year + ". Please use save instead of update.");
+        }
 
+        // Existing rows are preloaded for the update, so chunks stay managed until commit
+        try (InputStream inputStream = file.getInputStream()) {
+            excelUploadService.streamCollectionUpdatesFromExcel(inputStream, year, month, collectionRepo::saveAll);
         } catch (IOException e) {
             throw new RuntimeException("Failed to process Excel file", e);
         }
+        collectionRepo.flush();
+        branchPerformanceService.refreshMonth(year, month);
     }
 
 
 
     @Override
-    public List<CollectionResponseDTO> getAllCollectionResponses() {
-        List<CollectionEntity> collections = collectionRepo.findAll();
-        return collections.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-    }
-
-    @Override
+    @Transactional(readOnly = true)
     public CollectionResponseDTO getCollectionResponseById(Long id) {
-        CollectionEntity entity = collectionRepo.findById(id)
+        return collectionRepo.findResponseById(id)
                 .orElseThrow(() -> new RuntimeException("Collection not found with id: " + id));
-        return convertToResponseDTO(entity);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CollectionResponseDTO getCollectionResponseByBranchId(Long branchId) {
-        List<CollectionEntity> collections = collectionRepo.findCollectionsByBranchId(branchId);
-        if (collections.isEmpty()) {
+        // Most recent collection of the branch
+        List<CollectionResponseDTO> latest = collectionRepo.findLatestResponsesByBranchId(branchId, PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
             throw new RuntimeException("Collection not found for branch id: " + branchId);
         }
-
-        CollectionEntity entity = collections.stream()
-                .max((c1, c2) -> c1.getCreatedDatetime().compareTo(c2.getCreatedDatetime()))
-                .orElseThrow(() -> new RuntimeException("Collection not found for branch id: " + branchId));
-        return convertToResponseDTO(entity);
+        return latest.get(0);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public CollectionResponseDTO getCollectionResponseByBranchIdAndYearMonth(Long branchId, Integer year, Integer month) {
-        CollectionEntity entity = collectionRepo.findByBranchIdAndYearAndMonth(branchId, year, month)
+        return collectionRepo.findResponseByBranchIdAndYearAndMonth(branchId, year, month)
                 .orElseThrow(() -> new RuntimeException("Collection not found for branch id: " + branchId +
                         " in " + getMonthName(month) + " " + year));
-        return convertToResponseDTO(entity);
     }
 
     @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByBranchIdAndYear(Long branchId, Integer year) {
-        List<CollectionEntity> entities = collectionRepo.findByBranchIdAndYear(branchId, year);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CollectionResponseDTO> getCollectionResponsePage(Long branchId, Long regionId, Integer year, Integer month,
+                                                                          BigDecimal minPercentage, Long afterId, Integer size) {
+        return toCursorPage(findResponsePage(branchId, regionId, year, month, minPercentage,
+                afterId == null ? 0L : afterId, PageRequest.of(0, pageSize(size))));
     }
 
     @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByRegionId(Long regionId) {
-        List<CollectionEntity> entities = collectionRepo.findByRegionId(regionId);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-    }
-
-    @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByRegionIdAndYearMonth(Long regionId, Integer year, Integer month) {
-        List<CollectionEntity> entities = collectionRepo.findByRegionIdAndYearAndMonth(regionId, year, month);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-    }
-
-
-    @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByRegionIdAndYear(Long regionId, Integer year) {
-        List<CollectionEntity> entities = collectionRepo.findByRegionId(regionId).stream()
-                                                        .filter(c -> c.getCollectionYear().equals(year))
-                                                        .collect(Collectors.toList());
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CollectionResponseDTO> getCollectionResponsePageByPercentage(Integer year, Integer month, BigDecimal threshold,
+                                                                                      boolean below, Long afterId, Integer size) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        if (threshold == null || threshold.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Percentage threshold cannot be negative");
+        }
+        PageRequest page = PageRequest.of(0, pageSize(size));
+        long after = afterId == null ? 0L : afterId;
+        Slice<CollectionResponseDTO> slice = below
+                ? collectionRepo.findResponsePageBelowPercentage(year, month, threshold, after, page)
+                : collectionRepo.findResponsePageAtLeastPercentage(year, month, threshold, after, page);
+        return toCursorPage(slice);
+    }
+
+    // Picks the query written for the filter combination, so no optional predicates end up in the SQL
+    private Slice<CollectionResponseDTO> findResponsePage(Long branchId, Long regionId, Integer year, Integer month,
+                                                          BigDecimal minPercentage, long afterId, PageRequest page) {
+        if (minPercentage != null) {
+            if (branchId == null && regionId == null && year == null && month == null) {
+                return collectionRepo.findResponsePageByMinPercentage(minPercentage, afterId, page);
+            }
+        } else if (branchId != null) {
+            if (regionId == null && year != null && month == null) {
+                return collectionRepo.findResponsePageByBranchIdAndYear(branchId, year, afterId, page);
+            }
+        } else if (regionId != null) {
+            if (year == null && month == null) {
+                return collectionRepo.findResponsePageByRegionId(regionId, afterId, page);
+            }
+            if (year != null) {
+                return month == null
+                        ? collectionRepo.findResponsePageByRegionIdAndYear(regionId, year, afterId, page)
+                        : collectionRepo.findResponsePageByRegionIdAndYearAndMonth(regionId, year, month, afterId, page);
+            }
+        } else if (year != null) {
+            return month == null
+                    ? collectionRepo.findResponsePageByYear(year, afterId, page)
+                    : collectionRepo.findResponsePageByYearAndMonth(year, month, afterId, page);
+        } else if (month == null) {
+            return collectionRepo.findResponsePage(afterId, page);
+        }
+        throw new IllegalArgumentException("Unsupported collection filter combination");
     }
 
-
-    @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByPercentageThreshold(BigDecimal threshold) {
-        List<CollectionEntity> entities = collectionRepo.findByPercentageGreaterThanEqual(threshold);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    private CursorPageDTO<CollectionResponseDTO> toCursorPage(Slice<CollectionResponseDTO> slice) {
+        List<CollectionResponseDTO> items = slice.getContent();
+        Long nextCursor = slice.hasNext() ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, slice.hasNext());
     }
 
-    @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByYear(Integer year) {
-        List<CollectionEntity> entities = collectionRepo.findByCollectionYear(year);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    // Upload chunks check their branch ids against the table before the JDBC insert
+    private void insertChunk(List<CollectionEntity> collections) {
+        BranchRows.lockExisting(branchRepo, collections.stream().map(collection -> collection.getBranch().getId()).toList());
+        bulkCollectionWriter.insertAll(collections);
     }
 
-    @Override
-    public List<CollectionResponseDTO> getCollectionResponsesByYearAndMonth(Integer year, Integer month) {
-        List<CollectionEntity> entities = collectionRepo.findByCollectionYearAndCollectionMonth(year, month);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    // Missing size falls back to the default, anything above the limit is capped
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
     }
 
     private CollectionResponseDTO convertToResponseDTO(CollectionEntity collection) {
@@ -418,101 +452,90 @@ public class CollectionServiceImpl implements CollectionService {
     }
 
     private MonthlyCollectionSummaryDTO createMonthlyCollectionSummary(Integer year, Integer month, List<CollectionEntity> collections) {
-        MonthlyCollectionSummaryDTO summary = new MonthlyCollectionSummaryDTO();
-        summary.setYear(year);
-        summary.setMonth(month);
-        summary.setBranchCount(collections.size());
-
-        BigDecimal totalTarget = collections.stream()
-                .map(CollectionEntity::getTarget)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalTarget(totalTarget);
-
-        BigDecimal totalCollection = collections.stream()
-                .map(CollectionEntity::getCollectionAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalCollection(totalCollection);
-
-        BigDecimal totalDue = collections.stream()
-                .map(CollectionEntity::getDue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalDue(totalDue);
-
-        // Calculate overall percentage
-        BigDecimal overallPercentage = BigDecimal.ZERO;
-        if (totalTarget.compareTo(BigDecimal.ZERO) > 0) {
-            overallPercentage = totalCollection.multiply(BigDecimal.valueOf(100))
-                    .divide(totalTarget, 2, RoundingMode.HALF_UP);
-        }
-        summary.setOverallPercentage(overallPercentage);
-
-        List<CollectionResponseDTO> collectionResponses = collections.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        summary.setCollections(collectionResponses);
-
-        return summary;
+        MonthlyCentsTotals totals = new MonthlyCentsTotals(3);
+        List<CollectionResponseDTO> collectionResponses = new ArrayList<>(collections.size());
+        for (CollectionEntity collection : collections) {
+            addToTotals(totals, month, collection);
+            collectionResponses.add(convertToResponseDTO(collection));
+        }
+        return toMonthlySummary(year, month, totals, collectionResponses);
     }
 
     private YearlyCollectionSummaryDTO createYearlyCollectionSummary(Integer year, List<CollectionEntity> collections) {
+        // Totals are folded on the report pool when the year is large, response rows need the
+        // persistence context so they are built here
+        MonthlyCentsTotals totals = reportEngine.aggregate(collections.size(), () -> new MonthlyCentsTotals(3),
+                (partial, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        CollectionEntity collection = collections.get(i);
+                        addToTotals(partial, collection.getCollectionMonth(), collection);
+                    }
+                },
+                MonthlyCentsTotals::merge);
+        List<List<CollectionResponseDTO>> monthlyResponses = new ArrayList<>(13);
+        for (int month = 0; month <= 12; month++) {
+            monthlyResponses.add(new ArrayList<>());
+        }
+        for (CollectionEntity collection : collections) {
+            monthlyResponses.get(collection.getCollectionMonth()).add(convertToResponseDTO(collection));
+        }
+
         YearlyCollectionSummaryDTO summary = new YearlyCollectionSummaryDTO();
         summary.setYear(year);
-
-        BigDecimal totalTarget = collections.stream()
-                .map(CollectionEntity::getTarget)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalTarget(totalTarget);
-
-        BigDecimal totalCollection = collections.stream()
-                .map(CollectionEntity::getCollectionAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalCollection(totalCollection);
-
-        BigDecimal totalDue = collections.stream()
-                .map(CollectionEntity::getDue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalDue(totalDue);
-
-        // Calculate overall percentage
-        BigDecimal overallPercentage = BigDecimal.ZERO;
-        if (totalTarget.compareTo(BigDecimal.ZERO) > 0) {
-            overallPercentage = totalCollection.multiply(BigDecimal.valueOf(100))
-                    .divide(totalTarget, 2, RoundingMode.HALF_UP);
+        summary.setTotalTarget(MonthlyCentsTotals.toAmount(totals.yearCents(TARGET)));
+        summary.setTotalCollection(MonthlyCentsTotals.toAmount(totals.yearCents(COLLECTION)));
+        summary.setTotalDue(MonthlyCentsTotals.toAmount(totals.yearCents(DUE)));
+        summary.setOverallPercentage(MonthlyCentsTotals.percentage(totals.yearCents(COLLECTION), totals.yearCents(TARGET)));
+
+        List<MonthlyCollectionSummaryDTO> monthlyData = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            if (totals.rowCount(month) > 0) {
+                monthlyData.add(toMonthlySummary(year, month, totals, monthlyResponses.get(month)));
+            }
         }
-        summary.setOverallPercentage(overallPercentage);
-
-        // Group by month
-        Map<Integer, List<CollectionEntity>> monthlyCollections = collections.stream()
-                .collect(Collectors.groupingBy(CollectionEntity::getCollectionMonth));
+        summary.setMonthlyData(monthlyData);
+        summary.setTotalBranches(totals.branchCount());
 
-        List<MonthlyCollectionSummaryDTO> monthlyData = monthlyCollections.entrySet().stream()
-                .map(entry -> createMonthlyCollectionSummary(year, entry.getKey(), entry.getValue()))
-                .sorted((a, b) -> a.getMonth().compareTo(b.getMonth()))
-                .collect(Collectors.toList());
+        return summary;
+    }
 
-        summary.setMonthlyData(monthlyData);
-        summary.setTotalBranches(collections.stream()
-                .collect(Collectors.groupingBy(c -> c.getBranch().getId()))
-                .size());
+    private void addToTotals(MonthlyCentsTotals totals, int month, CollectionEntity collection) {
+        totals.addRow(month, collection.getBranch().getId());
+        totals.add(TARGET, month, collection.getTarget());
+        totals.add(COLLECTION, month, collection.getCollectionAmount());
+        totals.add(DUE, month, collection.getDue());
+    }
 
+    private MonthlyCollectionSummaryDTO toMonthlySummary(Integer year, int month, MonthlyCentsTotals totals,
+                                                         List<CollectionResponseDTO> collectionResponses) {
+        MonthlyCollectionSummaryDTO summary = new MonthlyCollectionSummaryDTO();
+        summary.setYear(year);
+        summary.setMonth(month);
+        summary.setBranchCount(totals.rowCount(month));
+        summary.setTotalTarget(MonthlyCentsTotals.toAmount(totals.monthCents(TARGET, month)));
+        summary.setTotalCollection(MonthlyCentsTotals.toAmount(totals.monthCents(COLLECTION, month)));
+        summary.setTotalDue(MonthlyCentsTotals.toAmount(totals.monthCents(DUE, month)));
+        summary.setOverallPercentage(MonthlyCentsTotals.percentage(totals.monthCents(COLLECTION, month), totals.monthCents(TARGET, month)));
+        summary.setCollections(collectionResponses);
         return summary;
     }
 
-    private BigDecimal calculatePercentage(BigDecimal collectionAmount, BigDecimal targetAmount) {
-        if (targetAmount == null || targetAmount.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
+    private void refreshPerformance(CollectionEntity collection, Integer originalYear, Integer originalMonth) {
+        Long branchId = collection.getBranch().getId();
+        branchPerformanceService.refresh(branchId, collection.getCollectionYear(), collection.getCollectionMonth());
+        if (!originalYear.equals(collection.getCollectionYear()) || !originalMonth.equals(collection.getCollectionMonth())) {
+            branchPerformanceService.refresh(branchId, originalYear, originalMonth);
         }
-        return collectionAmount.multiply(BigDecimal.valueOf(100))
-                .divide(targetAmount, 2, RoundingMode.HALF_UP);
     }
 
     private UserEntity getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             return null;
         }
-        String username = authentication.getName();
-        return userRepo.findByUsername(username).orElse(null);
+        // Only the id is needed for the created_by/modify_by columns
+        return userRepo.getReferenceById(user.getId());
     }
 
     private String getMonthName(Integer month) {
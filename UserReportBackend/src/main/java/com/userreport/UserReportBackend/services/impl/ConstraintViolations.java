@@ -0,0 +1,21 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Tells a violation of one named constraint apart from any other integrity error
+final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    // The reported name may carry a table prefix (MySQL) or an index suffix (H2), so it is matched by containment
+    static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase().contains(constraintName);
+            }
+        }
+        return false;
+    }
+}
@@ -1,47 +1,45 @@
 package com.userreport.UserReportBackend.services.impl;
 
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
 import com.userreport.UserReportBackend.dto.info.ChartDataDto;
-import com.userreport.UserReportBackend.entity.BranchEntity;
-import com.userreport.UserReportBackend.repository.BranchRepo;
-import com.userreport.UserReportBackend.repository.CollectionRepo;
-import com.userreport.UserReportBackend.repository.TargetRepo;
 import com.userreport.UserReportBackend.services.DashboardService;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
     @Autowired
-    private BranchRepo branchRepo;
-    @Autowired
-    private TargetRepo targetRepo;
+    private ReferenceDataService referenceDataService;
+
     @Autowired
-    private CollectionRepo collectionRepo;
+    private BranchPerformanceSnapshot branchPerformanceSnapshot;
 
     @Override
     public List<ChartDataDto> getDashboardDataForYear(int year) {
-        List<BranchEntity> branches = branchRepo.findAll();
+        // Every branch is listed, branches without rollup rows that year show zero totals
+        Map<Long, BranchPerformanceSnapshot.Totals> totals = branchPerformanceSnapshot.totalsByBranch(year);
 
-        return branches.stream().map(branch -> {
-            BigDecimal totalTarget = targetRepo.sumTargetByBranchAndYear(branch.getId(), year);
-            BigDecimal totalCollection = collectionRepo.sumCollectionByBranchAndYear(branch.getId(), year);
+        return referenceDataService.getAllBranches().stream()
+                .map(branch -> toChartData(branch, totals.get(branch.getId())))
+                .collect(Collectors.toList());
+    }
 
-            totalTarget = (totalTarget == null) ? BigDecimal.ZERO : totalTarget;
-            totalCollection = (totalCollection == null) ? BigDecimal.ZERO : totalCollection;
+    private ChartDataDto toChartData(BranchInfoDTO branch, BranchPerformanceSnapshot.Totals totals) {
+        long targetCents = (totals == null) ? 0 : totals.targetCents;
+        long collectionCents = (totals == null) ? 0 : totals.collectionCents;
 
-            BigDecimal achievement = BigDecimal.ZERO;
-            if (totalTarget.compareTo(BigDecimal.ZERO) > 0) {
-                achievement = totalCollection.divide(totalTarget, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
-            }
+        BigDecimal totalTarget = MonthlyCentsTotals.toAmount(targetCents);
+        BigDecimal totalCollection = MonthlyCentsTotals.toAmount(collectionCents);
+        // Same rounding as the stored collection percentages (2 places, HALF_UP)
+        BigDecimal achievement = MonthlyCentsTotals.percentage(collectionCents, targetCents);
 
-            return new ChartDataDto(branch.getBrnName(), totalTarget, totalCollection, achievement);
-        }).collect(Collectors.toList());
+        return new ChartDataDto(branch.getBrnName(), totalTarget, totalCollection, achievement);
     }
-}
\ No newline at end of file
+}
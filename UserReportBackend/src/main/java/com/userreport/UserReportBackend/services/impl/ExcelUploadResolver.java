@@ -0,0 +1,106 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
+import com.userreport.UserReportBackend.entity.BranchEntity;
+import com.userreport.UserReportBackend.entity.CollectionEntity;
+import com.userreport.UserReportBackend.entity.TargetEntity;
+import com.userreport.UserReportBackend.exception.ValidationException;
+import com.userreport.UserReportBackend.util.ExcelRow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Lookup tables for a single Excel upload. Branches come from the reference data cache and the
+ * targets/collections of the uploaded month are loaded once up front, so resolving a row never
+ * goes back to the database.
+ * Rows naming an unknown branch, or a branch already used by an earlier row of an insert, are
+ * collected and reported together by {@link #throwIfUnresolved()}.
+ */
+class ExcelUploadResolver {
+    private static final int MAX_REPORTED_ROWS = 20;
+
+    private final Function<Long, BranchEntity> branchReference;
+    private final Map<String, Long> branchIdsByName = new HashMap<>();
+    private final Map<Long, BranchEntity> branchesById = new HashMap<>();
+    private final Map<Long, TargetEntity> targetsByBranchId = new HashMap<>();
+    private final Map<Long, CollectionEntity> collectionsByBranchId = new HashMap<>();
+    private final List<String> unknownBranches = new ArrayList<>();
+    private final Set<Long> claimedBranchIds = new HashSet<>();
+    private final List<String> duplicateBranches = new ArrayList<>();
+
+    ExcelUploadResolver(List<BranchInfoDTO> branches, Function<Long, BranchEntity> branchReference,
+                        List<TargetEntity> targets, List<CollectionEntity> collections) {
+        this.branchReference = branchReference;
+        for (BranchInfoDTO branch : branches) {
+            branchIdsByName.put(normalise(branch.getBrnName()), branch.getId());
+        }
+        for (TargetEntity target : targets) {
+            targetsByBranchId.put(target.getBranch().getId(), target);
+        }
+        for (CollectionEntity collection : collections) {
+            collectionsByBranchId.put(collection.getBranch().getId(), collection);
+        }
+    }
+
+    // Returns null and records the row when the branch name is missing or unknown
+    BranchEntity resolveBranch(ExcelRow row, String branchName) {
+        Long branchId = branchName == null ? null : branchIdsByName.get(normalise(branchName));
+        if (branchId == null) {
+            unknownBranches.add("row " + row.getRowNumber() + " '" + (branchName == null ? "" : branchName) + "'");
+            return null;
+        }
+        return branchesById.computeIfAbsent(branchId, branchReference);
+    }
+
+    // Inserts allow one row per branch (unique branch/year/month key), returns false and records repeats
+    boolean claimBranch(ExcelRow row, String branchName, BranchEntity branch) {
+        if (claimedBranchIds.add(branch.getId())) {
+            return true;
+        }
+        duplicateBranches.add("row " + row.getRowNumber() + " '" + branchName + "'");
+        return false;
+    }
+
+    TargetEntity findTarget(BranchEntity branch) {
+        return targetsByBranchId.get(branch.getId());
+    }
+
+    CollectionEntity findCollection(BranchEntity branch) {
+        return collectionsByBranchId.get(branch.getId());
+    }
+
+    void throwIfUnresolved() {
+        if (unknownBranches.isEmpty() && duplicateBranches.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        appendRows(message, "Unknown branch name(s) in Excel file: ", unknownBranches);
+        appendRows(message, "Branch listed more than once in Excel file: ", duplicateBranches);
+        throw new ValidationException(message.toString());
+    }
+
+    private static void appendRows(StringBuilder message, String label, List<String> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (!message.isEmpty()) {
+            message.append("; ");
+        }
+        message.append(label);
+        message.append(String.join(", ", rows.subList(0, Math.min(MAX_REPORTED_ROWS, rows.size()))));
+        if (rows.size() > MAX_REPORTED_ROWS) {
+            message.append(" and ").append(rows.size() - MAX_REPORTED_ROWS).append(" more");
+        }
+    }
+
+    private static String normalise(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+}
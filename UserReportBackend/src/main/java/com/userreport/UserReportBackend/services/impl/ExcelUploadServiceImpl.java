@@ -1,5 +1,6 @@
 package com.userreport.UserReportBackend.services.impl;
 
+import com.userreport.UserReportBackend.dto.user.AuthenticatedUser;
 import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.CollectionEntity;
 import com.userreport.UserReportBackend.entity.TargetEntity;
@@ -9,21 +10,21 @@ import com.userreport.UserReportBackend.repository.CollectionRepo;
 import com.userreport.UserReportBackend.repository.TargetRepo;
 import com.userreport.UserReportBackend.repository.UserRepo;
 import com.userreport.UserReportBackend.services.ExcelUploadService;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
+import com.userreport.UserReportBackend.util.ExcelRow;
+import com.userreport.UserReportBackend.util.ExcelStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelUploadServiceImpl implements ExcelUploadService {
@@ -31,12 +32,17 @@ public class ExcelUploadServiceImpl implements ExcelUploadService {
     private final UserRepo userRepo;
     private final CollectionRepo collectionRepo;
     private final TargetRepo targetRepo;
+    private final ReferenceDataService referenceDataService;
+    private final int chunkSize;
 
-    public ExcelUploadServiceImpl(BranchRepo branchRepo, UserRepo userRepo, CollectionRepo collectionRepo, TargetRepo targetRepo) {
+    public ExcelUploadServiceImpl(BranchRepo branchRepo, UserRepo userRepo, CollectionRepo collectionRepo, TargetRepo targetRepo,
+                                  ReferenceDataService referenceDataService, @Value("${excel.upload.chunk-size:500}") int chunkSize) {
         this.branchRepo = branchRepo;
         this.userRepo = userRepo;
         this.collectionRepo = collectionRepo;
         this.targetRepo = targetRepo;
+        this.referenceDataService = referenceDataService;
+        this.chunkSize = chunkSize;
     }
 
     public boolean isValidExcelFile(MultipartFile file) {
@@ -49,300 +55,191 @@ public class ExcelUploadServiceImpl implements ExcelUploadService {
     @Override
     public List<TargetEntity> getTargetsFromExcel(InputStream inputStream, int year, int month) {
         List<TargetEntity> targets = new ArrayList<>();
+        streamTargetsFromExcel(inputStream, year, month, targets::addAll);
+        return targets;
+    }
 
-        try {
-            XSSFWorkbook workbook = new XSSFWorkbook(inputStream);
-            XSSFSheet sheet = workbook.getSheet("targets");
-            if (sheet == null) {
-                sheet = workbook.getSheet("Targets");
-            }
+    @Override
+    public List<CollectionEntity> getCollectionsFromExcel(InputStream inputStream, int year, int month) {
+        List<CollectionEntity> collections = new ArrayList<>();
+        streamCollectionsFromExcel(inputStream, year, month, collections::addAll);
+        return collections;
+    }
 
-            int rowIndex = 0;
-            for (Row row : sheet) {
-                if (rowIndex == 0) {
-                    rowIndex++;
-                    continue; // Skip header row
-                }
+    @Override
+    public List<CollectionEntity> updateCollectionsFromExcel(InputStream inputStream, int year, int month) {
+        List<CollectionEntity> collections = new ArrayList<>();
+        streamCollectionUpdatesFromExcel(inputStream, year, month, collections::addAll);
+        return collections;
+    }
 
-                Iterator<Cell> cellIterator = row.cellIterator();
-                int cellIndex = 0;
+    @Override
+    public List<TargetEntity> updateTargetsFromExcel(InputStream inputStream, int year, int month) {
+        List<TargetEntity> targets = new ArrayList<>();
+        streamTargetUpdatesFromExcel(inputStream, year, month, targets::addAll);
+        return targets;
+    }
+
+    @Override
+    public void streamTargetsFromExcel(InputStream inputStream, int year, int month, Consumer<List<TargetEntity>> chunkConsumer) {
+        UserEntity currentUser = getCurrentUser();
+        ExcelUploadResolver resolver = newResolver(List.of(), List.of());
+
+        ExcelStreamReader.readSheet(inputStream, "targets", chunkSize, rows -> {
+            List<TargetEntity> targets = new ArrayList<>(rows.size());
+            for (ExcelRow row : rows) {
+                checkColumnCount(row);
+                BranchEntity branch = resolver.resolveBranch(row, row.getValue(0));
+                if (branch == null || !resolver.claimBranch(row, row.getValue(0), branch)) {
+                    continue;
+                }
                 TargetEntity target = new TargetEntity();
 
                 // Set year and month from path variables
                 target.setTargetYear(year);
                 target.setTargetMonth(month);
-
-                UserEntity currentUser = getCurrentUser();
                 if (currentUser != null) {
                     target.setCreatedBy(currentUser);
                 }
                 target.setCreatedDatetime(LocalDateTime.now());
 
-                while (cellIterator.hasNext()) {
-                    Cell cell = cellIterator.next();
-                    switch (cellIndex) {
-                        case 0 -> target.setBranch(branchRepo.findByBrnName(cell.getStringCellValue()));
-                        case 1 -> target.setTarget(BigDecimal.valueOf(cell.getNumericCellValue()));
-                        default -> throw new IllegalStateException("Unexpected value: " + cellIndex);
-                    }
-                    cellIndex++;
-                }
+                target.setBranch(branch);
+                target.setTarget(parseAmount(row.getValue(1)));
                 targets.add(target);
             }
-            workbook.close();
-
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse Excel file", e);
-        }
-        return targets;
+            chunkConsumer.accept(targets);
+        });
+        resolver.throwIfUnresolved();
     }
 
     @Override
-    public List<CollectionEntity> getCollectionsFromExcel(InputStream inputStream, int year, int month) {
-        List<CollectionEntity> collections = new ArrayList<>();
-
-        try {
-            XSSFWorkbook workbook = new XSSFWorkbook(inputStream);
-            XSSFSheet sheet = workbook.getSheet("collections");
-            if (sheet == null) {
-                sheet = workbook.getSheet("Collections");
-            }
-
-            int rowIndex = 0;
-            for (Row row : sheet) {
-                if (rowIndex == 0) {
-                    rowIndex++;
-                    continue; // Skip header row
+    public void streamCollectionsFromExcel(InputStream inputStream, int year, int month, Consumer<List<CollectionEntity>> chunkConsumer) {
+        UserEntity currentUser = getCurrentUser();
+        ExcelUploadResolver resolver = newResolver(targetRepo.findByTargetYearAndTargetMonth(year, month), List.of());
+
+        ExcelStreamReader.readSheet(inputStream, "collections", chunkSize, rows -> {
+            List<CollectionEntity> collections = new ArrayList<>(rows.size());
+            for (ExcelRow row : rows) {
+                checkColumnCount(row);
+                BranchEntity branch = resolver.resolveBranch(row, row.getValue(0));
+                if (branch == null || !resolver.claimBranch(row, row.getValue(0), branch)) {
+                    continue;
                 }
-
-                Iterator<Cell> cellIterator = row.cellIterator();
-                int cellIndex = 0;
                 CollectionEntity collection = new CollectionEntity();
-                String branchName = null;
+                BigDecimal collectionAmount = parseAmount(row.getValue(1));
 
                 // Set year and month from path variables
                 collection.setCollectionYear(year);
                 collection.setCollectionMonth(month);
-
-                UserEntity currentUser = getCurrentUser();
                 if (currentUser != null) {
                     collection.setCreatedBy(currentUser);
                 }
                 collection.setCreatedDatetime(LocalDateTime.now());
 
-                BigDecimal collectionAmount = null;
-                while (cellIterator.hasNext()) {
-                    Cell cell = cellIterator.next();
-                    switch (cellIndex) {
-                        case 0 -> {
-                            branchName = cell.getStringCellValue();
-                            collection.setBranch(branchRepo.findByBrnName(branchName));
-                        }
-                        case 1 -> {
-                            collectionAmount = BigDecimal.valueOf(cell.getNumericCellValue());
-                            collection.setCollectionAmount(collectionAmount);
-                        }
-                        default -> throw new IllegalStateException("Unexpected value: " + cellIndex);
-                    }
-                    cellIndex++;
-                }
-                // Set target after processing all cells
-                BigDecimal targetAmount = null;
-                if (branchName != null) {
-                    BranchEntity branch = branchRepo.findByBrnName(branchName);
-                    if (branch != null) {
-                        // Fix: Handle Optional return type
-                        Optional<TargetEntity> targetEntityOpt = targetRepo.findByBranchIdAndYearAndMonth(
-                                branch.getId(),
-                                year,
-                                month
-                        );
-
-                        if (targetEntityOpt.isPresent()) {
-                            targetAmount = targetEntityOpt.get().getTarget();
-                        }
-                    }
-                }
+                collection.setBranch(branch);
 
-                if (targetAmount != null) {
-                    collection.setTarget(targetAmount);
-                    collection.setPercentage(calculatePercentage(collectionAmount, targetAmount));
-                    collection.setDue(targetAmount.subtract(collectionAmount));
-                } else {
-                    // Handle case when no target is found
-                    collection.setTarget(BigDecimal.ZERO);
-                    collection.setPercentage(BigDecimal.ZERO);
-                    collection.setDue(BigDecimal.ZERO);
-                }
+                // Without a target the target is stored as zero
+                TargetEntity target = resolver.findTarget(branch);
+                collection.applyAmounts(target != null ? target.getTarget() : null, collectionAmount);
 
-                collections.add(collection); // Don't forget to add the collection to the list
+                collections.add(collection);
             }
-            workbook.close();
-
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse Excel file", e);
-        }
-        return collections;
+            chunkConsumer.accept(collections);
+        });
+        resolver.throwIfUnresolved();
     }
 
-
     @Override
-    public List<CollectionEntity> updateCollectionsFromExcel(InputStream inputStream, int year, int month) {
-        List<CollectionEntity> collections = new ArrayList<>();
-
-        try {
-            XSSFWorkbook workbook = new XSSFWorkbook(inputStream);
-            XSSFSheet sheet = workbook.getSheet("collections");
-            if (sheet == null) {
-                sheet = workbook.getSheet("Collections");
-            }
-
-            int rowIndex = 0;
-            for (Row row : sheet) {
-                if (rowIndex == 0) {
-                    rowIndex++;
-                    continue; // Skip header row
+    public void streamCollectionUpdatesFromExcel(InputStream inputStream, int year, int month, Consumer<List<CollectionEntity>> chunkConsumer) {
+        UserEntity currentUser = getCurrentUser();
+        ExcelUploadResolver resolver = newResolver(List.of(), collectionRepo.findByCollectionYearAndCollectionMonth(year, month));
+
+        ExcelStreamReader.readSheet(inputStream, "collections", chunkSize, rows -> {
+            List<CollectionEntity> collections = new ArrayList<>(rows.size());
+            for (ExcelRow row : rows) {
+                checkColumnCount(row);
+                BranchEntity branch = resolver.resolveBranch(row, row.getValue(0));
+                if (branch == null) {
+                    continue;
                 }
-
-                Iterator<Cell> cellIterator = row.cellIterator();
-                int cellIndex = 0;
-                String branchName = null;
-                BigDecimal collectionAmount = null;
-
-                // First, extract data from Excel
-                while (cellIterator.hasNext()) {
-                    Cell cell = cellIterator.next();
-                    switch (cellIndex) {
-                        case 0 -> branchName = cell.getStringCellValue();
-                        case 1 -> collectionAmount = BigDecimal.valueOf(cell.getNumericCellValue());
-                        default -> throw new IllegalStateException("Unexpected value: " + cellIndex);
-                    }
-                    cellIndex++;
-                }
-
                 // Find and update existing collection record
-                if (branchName != null) {
-                    BranchEntity branch = branchRepo.findByBrnName(branchName);
-                    if (branch != null) {
-                        // Find existing collection by branch, year, and month
-                        Optional<CollectionEntity> existingCollectionOpt = collectionRepo
-                                .findByBranchAndCollectionYearAndCollectionMonth(branch, year, month);
-
-                        if (existingCollectionOpt.isPresent()) {
-                            CollectionEntity collection = existingCollectionOpt.get();
-
-                            // Update only the collection amount
-                            collection.setCollectionAmount(collectionAmount);
-
-                            // Update audit fields
-                            UserEntity currentUser = getCurrentUser();
-                            if (currentUser != null) {
-                                collection.setModifyBy(currentUser);
-                            }
-                            collection.setModifyDatetime(LocalDateTime.now());
-
-                            // Recalculate percentage and due based on existing target
-                            BigDecimal existingTarget = collection.getTarget();
-                            if (existingTarget != null && existingTarget.compareTo(BigDecimal.ZERO) > 0) {
-                                collection.setPercentage(calculatePercentage(collectionAmount, existingTarget));
-                                collection.setDue(existingTarget.subtract(collectionAmount));
-                            } else {
-                                collection.setPercentage(BigDecimal.ZERO);
-                                collection.setDue(collectionAmount.negate()); // Negative due if no target
-                            }
-
-                            collections.add(collection);
-                        }
-                    }
+                CollectionEntity collection = resolver.findCollection(branch);
+                if (collection == null) {
+                    continue;
                 }
-            }
-            workbook.close();
+                BigDecimal collectionAmount = parseAmount(row.getValue(1));
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse Excel file", e);
-        }
-        return collections;
-    }
+                // Update only the collection amount, due and percentage follow from the existing target
+                collection.applyAmounts(collection.getTarget(), collectionAmount);
 
-    @Override
-    public List<TargetEntity> updateTargetsFromExcel(InputStream inputStream, int year, int month) {
-        List<TargetEntity> targets = new ArrayList<>();
+                // Update audit fields
+                if (currentUser != null) {
+                    collection.setModifyBy(currentUser);
+                }
+                collection.setModifyDatetime(LocalDateTime.now());
 
-        try {
-            XSSFWorkbook workbook = new XSSFWorkbook(inputStream);
-            XSSFSheet sheet = workbook.getSheet("targets");
-            if (sheet == null) {
-                sheet = workbook.getSheet("Targets");
+                collections.add(collection);
             }
+            chunkConsumer.accept(collections);
+        });
+        resolver.throwIfUnresolved();
+    }
 
-            int rowIndex = 0;
-            for (Row row : sheet) {
-                if (rowIndex == 0) {
-                    rowIndex++;
-                    continue; // Skip header row
+    @Override
+    public void streamTargetUpdatesFromExcel(InputStream inputStream, int year, int month, Consumer<List<TargetEntity>> chunkConsumer) {
+        UserEntity currentUser = getCurrentUser();
+        ExcelUploadResolver resolver = newResolver(targetRepo.findByTargetYearAndTargetMonth(year, month), List.of());
+
+        ExcelStreamReader.readSheet(inputStream, "targets", chunkSize, rows -> {
+            List<TargetEntity> targets = new ArrayList<>(rows.size());
+            for (ExcelRow row : rows) {
+                checkColumnCount(row);
+                BranchEntity branch = resolver.resolveBranch(row, row.getValue(0));
+                if (branch == null) {
+                    continue;
                 }
-
-                Iterator<Cell> cellIterator = row.cellIterator();
-                int cellIndex = 0;
-                String branchName = null;
-                BigDecimal targetAmount = null;
-
-                while (cellIterator.hasNext()) {
-                    Cell cell = cellIterator.next();
-                    switch (cellIndex) {
-                        case 0 -> branchName = cell.getStringCellValue();
-                        case 1 -> targetAmount = BigDecimal.valueOf(cell.getNumericCellValue());
-                        default -> throw new IllegalStateException("Unexpected value: " + cellIndex);
-                    }
-                    cellIndex++;
+                TargetEntity target = resolver.findTarget(branch);
+                if (target == null) {
+                    continue;
                 }
+                target.setTarget(parseAmount(row.getValue(1)));
 
-                if (branchName != null) {
-                    BranchEntity branch = branchRepo.findByBrnName(branchName);
-                    if (branch != null) {
-                        Optional<TargetEntity> existingTargetOpt = targetRepo
-                                .findByBranchIdAndYearAndMonth(branch.getId(), year, month);
-
-                        if (existingTargetOpt.isPresent()) {
-                            TargetEntity target = existingTargetOpt.get();
-                            target.setTarget(targetAmount);
-
-                            UserEntity currentUser = getCurrentUser();
-                            if (currentUser != null) {
-                                target.setModifyBy(currentUser);
-                            }
-                            target.setModifyDatetime(LocalDateTime.now());
-
-                            targets.add(target);
-                        }
-                    }
+                if (currentUser != null) {
+                    target.setModifyBy(currentUser);
                 }
+                target.setModifyDatetime(LocalDateTime.now());
+
+                targets.add(target);
             }
-            workbook.close();
+            chunkConsumer.accept(targets);
+        });
+        resolver.throwIfUnresolved();
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse Excel file", e);
-        }
-        return targets;
+    // Rows only need the branch id, so resolved branches are references rather than loaded entities
+    private ExcelUploadResolver newResolver(List<TargetEntity> targets, List<CollectionEntity> collections) {
+        return new ExcelUploadResolver(referenceDataService.getAllBranches(), branchRepo::getReferenceById, targets, collections);
     }
 
+    private void checkColumnCount(ExcelRow row) {
+        if (row.size() > 2) {
+            throw new IllegalStateException("Unexpected value in column " + (row.size() - 1) + " at row " + row.getRowNumber());
+        }
+    }
 
+    // Numeric cells hold the double as text (e.g. 1234.5600000000001), amounts are kept in cents like the columns
+    private BigDecimal parseAmount(String value) {
+        return value == null ? null : new BigDecimal(value.trim()).setScale(2, RoundingMode.HALF_UP);
+    }
 
     private UserEntity getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             return null;
         }
-        String username = authentication.getName();
-        return userRepo.findByUsername(username).orElse(null);
-    }
-
-    private BigDecimal calculatePercentage(BigDecimal collectionAmount, BigDecimal targetAmount) {
-        if (targetAmount == null || targetAmount.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
-        }
-        return collectionAmount.multiply(BigDecimal.valueOf(100))
-                .divide(targetAmount, 2, RoundingMode.HALF_UP);
+        // Only the id is needed for the created_by/modify_by columns
+        return userRepo.getReferenceById(user.getId());
     }
 
 }
@@ -0,0 +1,79 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.BitSet;
+
+/**
+ * Running totals for the monthly/yearly summaries, filled in a single pass over the rows.
+ * Money columns are all DECIMAL(10,2), so amounts are accumulated as long cents per column and
+ * month (index 1-12) and only turned back into BigDecimal when the summary DTOs are built.
+ * Partial totals of separate row ranges can be merged (see ReportEngine).
+ */
+class MonthlyCentsTotals {
+    private final long[][] cents;
+    private final int[] rowCounts = new int[13];
+    private final BitSet branchIds = new BitSet();
+
+    MonthlyCentsTotals(int columns) {
+        this.cents = new long[columns][13];
+    }
+
+    void addRow(int month, Long branchId) {
+        rowCounts[month]++;
+        branchIds.set(Math.toIntExact(branchId));
+    }
+
+    void add(int column, int month, BigDecimal amount) {
+        if (amount != null) {
+            cents[column][month] += amount.movePointRight(2).longValueExact();
+        }
+    }
+
+    // Adds another partial result into this one and returns this
+    MonthlyCentsTotals merge(MonthlyCentsTotals other) {
+        for (int column = 0; column < cents.length; column++) {
+            for (int month = 0; month <= 12; month++) {
+                cents[column][month] += other.cents[column][month];
+            }
+        }
+        for (int month = 0; month <= 12; month++) {
+            rowCounts[month] += other.rowCounts[month];
+        }
+        branchIds.or(other.branchIds);
+        return this;
+    }
+
+    int rowCount(int month) {
+        return rowCounts[month];
+    }
+
+    int branchCount() {
+        return branchIds.cardinality();
+    }
+
+    long monthCents(int column, int month) {
+        return cents[column][month];
+    }
+
+    long yearCents(int column) {
+        long total = 0;
+        for (long monthTotal : cents[column]) {
+            total += monthTotal;
+        }
+        return total;
+    }
+
+    static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // part * 100 / whole rounded to 2 places, zero when there is nothing to divide by
+    static BigDecimal percentage(long partCents, long wholeCents) {
+        if (wholeCents <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(partCents).multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(wholeCents), 2, RoundingMode.HALF_UP);
+    }
+}
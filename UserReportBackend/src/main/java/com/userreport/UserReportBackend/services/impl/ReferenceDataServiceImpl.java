@@ -0,0 +1,69 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.config.CacheConfig;
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
+import com.userreport.UserReportBackend.dto.info.RegionInfoDTO;
+import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.RegionRepo;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Cached branch and region lookups. Snapshots are cached instead of entities so that nothing
+ * lazy is shared between sessions. Entries are evicted by the branch and region write methods.
+ */
+@Service
+public class ReferenceDataServiceImpl implements ReferenceDataService {
+    private final BranchRepo branchRepo;
+    private final RegionRepo regionRepo;
+
+    public ReferenceDataServiceImpl(BranchRepo branchRepo, RegionRepo regionRepo) {
+        this.branchRepo = branchRepo;
+        this.regionRepo = regionRepo;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BRANCHES_BY_ID, unless = "#result == null")
+    public BranchInfoDTO getBranchById(Long id) {
+        return branchRepo.findBranchInfoById(id).orElse(null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BRANCHES_BY_NAME, key = "#brnName.trim().toUpperCase()", unless = "#result == null")
+    public BranchInfoDTO getBranchByName(String brnName) {
+        return branchRepo.findBranchInfoByName(brnName.trim()).orElse(null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BRANCHES, key = "'all'")
+    public List<BranchInfoDTO> getAllBranches() {
+        return List.copyOf(branchRepo.findAllBranchInfo());
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BRANCHES_BY_REGION)
+    public List<BranchInfoDTO> getBranchesByRegionId(Long regionId) {
+        return List.copyOf(branchRepo.findBranchInfoByRegionId(regionId));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.REGIONS_BY_ID, unless = "#result == null")
+    public RegionInfoDTO getRegionById(Long id) {
+        return regionRepo.findRegionInfoById(id).orElse(null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.REGIONS_BY_NAME, key = "#rgnName.trim().toUpperCase()", unless = "#result == null")
+    public RegionInfoDTO getRegionByName(String rgnName) {
+        return regionRepo.findRegionInfoByName(rgnName.trim()).orElse(null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.REGIONS, key = "'all'")
+    public List<RegionInfoDTO> getAllRegions() {
+        return List.copyOf(regionRepo.findAllRegionInfo());
+    }
+}
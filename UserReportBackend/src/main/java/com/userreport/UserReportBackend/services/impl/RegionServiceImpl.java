@@ -1,26 +1,45 @@
 package com.userreport.UserReportBackend.services.impl;
 
+import com.userreport.UserReportBackend.config.CacheConfig;
 import com.userreport.UserReportBackend.dto.branch.BranchSummaryDTO;
+import com.userreport.UserReportBackend.dto.branch.BranchSummaryResponseDTO;
+import com.userreport.UserReportBackend.dto.info.BranchInfoDTO;
+import com.userreport.UserReportBackend.dto.info.RegionInfoDTO;
 import com.userreport.UserReportBackend.dto.region.*;
-import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.RegionEntity;
+import com.userreport.UserReportBackend.repository.BranchRepo;
 import com.userreport.UserReportBackend.repository.RegionRepo;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
+import com.userreport.UserReportBackend.services.ReferenceDataService;
 import com.userreport.UserReportBackend.services.RegionService;
 
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class RegionServiceImpl implements RegionService {
     private final RegionRepo regionRepo;
+    private final BranchRepo branchRepo;
+    private final BranchPerformanceService branchPerformanceService;
+    private final ReferenceDataService referenceDataService;
 
-    public RegionServiceImpl(RegionRepo regionRepo) {
+    public RegionServiceImpl(RegionRepo regionRepo, BranchRepo branchRepo, BranchPerformanceService branchPerformanceService,
+                             ReferenceDataService referenceDataService) {
         this.regionRepo = regionRepo;
+        this.branchRepo = branchRepo;
+        this.branchPerformanceService = branchPerformanceService;
+        this.referenceDataService = referenceDataService;
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS_BY_ID, CacheConfig.REGIONS_BY_NAME, CacheConfig.REGIONS,
+            CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES, CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public RegionSaveResponseDTO saveRegion(RegionSaveRequestDTO regionSaveRequestDTO) {
         if (regionSaveRequestDTO.getRgnName() == null || regionSaveRequestDTO.getRgnName().isEmpty()) {
             return new RegionSaveResponseDTO(null, "Region name cannot be empty");
@@ -28,7 +47,7 @@ public class RegionServiceImpl implements RegionService {
         if (regionSaveRequestDTO.getRgnDes() == null || regionSaveRequestDTO.getRgnDes().isEmpty()) {
             return new RegionSaveResponseDTO(null, "Region description cannot be empty");
         }
-        if (regionRepo.existsByRgnName(regionSaveRequestDTO.getRgnName().toUpperCase())) {
+        if (referenceDataService.getRegionByName(regionSaveRequestDTO.getRgnName()) != null) {
             return new RegionSaveResponseDTO(null, "Region already exists");
         }
         RegionEntity regionEntity = new RegionEntity(
@@ -44,6 +63,7 @@ public class RegionServiceImpl implements RegionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RegionEntity> getAllRegions() {
         List<RegionEntity> regions =regionRepo.findAll();
         if (regions.isEmpty()) {
@@ -53,6 +73,8 @@ public class RegionServiceImpl implements RegionService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS_BY_ID, CacheConfig.REGIONS_BY_NAME, CacheConfig.REGIONS,
+            CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES, CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public RegionSaveResponseDTO updateRegion(Long id, RegionSaveRequestDTO regionSaveRequestDTO) {
         if (regionSaveRequestDTO.getRgnName() == null || regionSaveRequestDTO.getRgnName().isEmpty()) {
             return new RegionSaveResponseDTO(null, "Region name cannot be empty");
@@ -78,11 +100,15 @@ public class RegionServiceImpl implements RegionService {
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS_BY_ID, CacheConfig.REGIONS_BY_NAME, CacheConfig.REGIONS,
+            CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES, CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public void deleteRegion(Long id) {
         if (!regionRepo.existsById(id)) {
             throw new RuntimeException("Region not found");
         }
         try {
+            branchPerformanceService.onRegionDeleted(id);
             regionRepo.deleteById(id);
         } catch (Exception e) {
             throw new RuntimeException("Error deleting region: " + e.getMessage());
@@ -90,6 +116,8 @@ public class RegionServiceImpl implements RegionService {
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS_BY_ID, CacheConfig.REGIONS_BY_NAME, CacheConfig.REGIONS,
+            CacheConfig.BRANCHES_BY_ID, CacheConfig.BRANCHES_BY_NAME, CacheConfig.BRANCHES, CacheConfig.BRANCHES_BY_REGION}, allEntries = true)
     public RegionSaveResponseDTO updateRegionDescription(Long id, RegionDescriptionUpdateRequestDTO regionDescriptionUpdateRequestDTO) {
         if (regionDescriptionUpdateRequestDTO.getRgnDes() == null || regionDescriptionUpdateRequestDTO.getRgnDes().isEmpty()) {
             return new RegionSaveResponseDTO(null, "Region description cannot be empty");
@@ -108,61 +136,85 @@ public class RegionServiceImpl implements RegionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RegionResponseDTO> getAllRegionResponses() {
-        List<RegionEntity> regions = regionRepo.findAll();
+        List<RegionInfoDTO> regions = referenceDataService.getAllRegions();
+        Map<Long, List<BranchInfoDTO>> branchesByRegion = groupBranchesByRegion();
+        Map<Long, BranchSummaryResponseDTO> branchFlags = findBranchSummaries();
         return regions.stream()
-                .map(this::convertToResponseDTO)
+                .map(region -> convertToResponseDTO(region, branchesByRegion.getOrDefault(region.getId(), List.of()), branchFlags))
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RegionSummaryDTO> getAllRegionSummaries() {
-        List<RegionEntity> regions = regionRepo.findAll();
+        List<RegionInfoDTO> regions = referenceDataService.getAllRegions();
+        Map<Long, List<BranchInfoDTO>> branchesByRegion = groupBranchesByRegion();
         return regions.stream()
-                .map(this::convertToSummaryDTO)
+                .map(region -> convertToSummaryDTO(region, branchesByRegion.getOrDefault(region.getId(), List.of()).size()))
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public RegionResponseDTO getRegionResponseById(Long id) {
-        RegionEntity region = regionRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Region not found with id: " + id));
-        return convertToResponseDTO(region);
+        RegionInfoDTO region = referenceDataService.getRegionById(id);
+        if (region == null) {
+            throw new RuntimeException("Region not found with id: " + id);
+        }
+        List<BranchInfoDTO> branches = groupBranchesByRegion().getOrDefault(id, List.of());
+        Map<Long, BranchSummaryResponseDTO> branchFlags = branchRepo.findBranchSummariesByRegionId(id).stream()
+                .collect(Collectors.toMap(BranchSummaryResponseDTO::getId, Function.identity()));
+        return convertToResponseDTO(region, branches, branchFlags);
+    }
+
+    // Branches come from the reference data cache, grouped here instead of walking region.getBranches()
+    private Map<Long, List<BranchInfoDTO>> groupBranchesByRegion() {
+        return referenceDataService.getAllBranches().stream()
+                .collect(Collectors.groupingBy(BranchInfoDTO::getRegionId));
     }
 
+    // hasTarget/hasCollection of every branch from a single query, keyed by branch id
+    private Map<Long, BranchSummaryResponseDTO> findBranchSummaries() {
+        return branchRepo.findAllBranchSummaries().stream()
+                .collect(Collectors.toMap(BranchSummaryResponseDTO::getId, Function.identity()));
+    }
 
-    private RegionResponseDTO convertToResponseDTO(RegionEntity region) {
+    private RegionResponseDTO convertToResponseDTO(RegionInfoDTO region, List<BranchInfoDTO> branches,
+                                                   Map<Long, BranchSummaryResponseDTO> branchFlags) {
         RegionResponseDTO dto = new RegionResponseDTO();
-        dto.setId((long) region.getId());
+        dto.setId(region.getId());
         dto.setRgnName(region.getRgnName());
         dto.setRgnDes(region.getRgnDes());
-        dto.setTotalBranches(region.getBranches().size());
+        dto.setTotalBranches(branches.size());
 
         // Convert branches to summary DTOs
-        List<BranchSummaryDTO> branchSummaries = region.getBranches().stream()
-                .map(this::convertBranchToSummaryDTO)
+        List<BranchSummaryDTO> branchSummaries = branches.stream()
+                .map(branch -> convertBranchToSummaryDTO(branch, branchFlags.get(branch.getId())))
                 .collect(Collectors.toList());
         dto.setBranches(branchSummaries);
 
         return dto;
     }
 
-    private RegionSummaryDTO convertToSummaryDTO(RegionEntity region) {
+    private RegionSummaryDTO convertToSummaryDTO(RegionInfoDTO region, int totalBranches) {
         RegionSummaryDTO dto = new RegionSummaryDTO();
-        dto.setId((long) region.getId());
+        dto.setId(region.getId());
         dto.setRgnName(region.getRgnName());
         dto.setRgnDes(region.getRgnDes());
-        dto.setTotalBranches(region.getBranches().size());
+        dto.setTotalBranches(totalBranches);
         return dto;
     }
 
-    private BranchSummaryDTO convertBranchToSummaryDTO(BranchEntity branch) {
+    private BranchSummaryDTO convertBranchToSummaryDTO(BranchInfoDTO branch, BranchSummaryResponseDTO summary) {
         BranchSummaryDTO dto = new BranchSummaryDTO();
         dto.setId(branch.getId());
         dto.setBrnName(branch.getBrnName());
         dto.setBrnDes(branch.getBrnDes());
-        dto.setHasTarget(!branch.getTargets().isEmpty());
-        dto.setHasCollection(false); // Will be set based on collection relationship
+        // A branch created after the summary query ran has neither yet
+        dto.setHasTarget(summary != null && summary.isHasTarget());
+        dto.setHasCollection(summary != null && summary.isHasCollection());
         return dto;
     }
 
@@ -0,0 +1,75 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Folds the rows of a report into mergeable partial accumulators. Below the threshold the rows are
+ * folded in the calling thread; above it the index range is split into chunks on the report pool and
+ * the partial results are merged back together.
+ * Folders only read rows that are already loaded, anything that needs the persistence context
+ * (lazy associations, DTO conversion) stays in the request thread.
+ */
+@Component
+class ReportEngine {
+    private final ForkJoinPool reportPool;
+    private final int parallelThreshold;
+
+    ReportEngine(ForkJoinPool reportPool, @Value("${report.parallel-threshold:20000}") int parallelThreshold) {
+        this.reportPool = reportPool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    interface RangeFolder<A> {
+        // Fold rows from (inclusive) to (exclusive) into the accumulator
+        void fold(A accumulator, int from, int to);
+    }
+
+    <A> A aggregate(int size, Supplier<A> newAccumulator, RangeFolder<A> folder, BinaryOperator<A> merger) {
+        if (size < parallelThreshold || reportPool.getParallelism() == 1) {
+            A accumulator = newAccumulator.get();
+            folder.fold(accumulator, 0, size);
+            return accumulator;
+        }
+        // A few chunks per worker so uneven chunks still balance out
+        int chunkSize = Math.max(1024, size / (reportPool.getParallelism() * 4));
+        return reportPool.invoke(new FoldTask<>(0, size, chunkSize, newAccumulator, folder, merger));
+    }
+
+    private static class FoldTask<A> extends RecursiveTask<A> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Supplier<A> newAccumulator;
+        private final RangeFolder<A> folder;
+        private final BinaryOperator<A> merger;
+
+        FoldTask(int from, int to, int chunkSize, Supplier<A> newAccumulator, RangeFolder<A> folder, BinaryOperator<A> merger) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.newAccumulator = newAccumulator;
+            this.folder = folder;
+            this.merger = merger;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= chunkSize) {
+                A accumulator = newAccumulator.get();
+                folder.fold(accumulator, from, to);
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            FoldTask<A> left = new FoldTask<>(from, middle, chunkSize, newAccumulator, folder, merger);
+            left.fork();
+            A right = new FoldTask<>(middle, to, chunkSize, newAccumulator, folder, merger).compute();
+            return merger.apply(left.join(), right);
+        }
+    }
+}
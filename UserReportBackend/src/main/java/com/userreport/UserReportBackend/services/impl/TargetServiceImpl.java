@@ -1,44 +1,76 @@
 package com.userreport.UserReportBackend.services.impl;
 
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
 import com.userreport.UserReportBackend.dto.target.*;
+import com.userreport.UserReportBackend.dto.user.AuthenticatedUser;
 import com.userreport.UserReportBackend.entity.CollectionEntity;
 import com.userreport.UserReportBackend.entity.TargetEntity;
 import com.userreport.UserReportBackend.entity.BranchEntity;
 import com.userreport.UserReportBackend.entity.UserEntity;
 import com.userreport.UserReportBackend.repository.TargetRepo;
 import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.BulkTargetWriter;
 import com.userreport.UserReportBackend.repository.UserRepo;
+import com.userreport.UserReportBackend.services.BranchPerformanceService;
 import com.userreport.UserReportBackend.services.ExcelUploadService;
 import com.userreport.UserReportBackend.services.TargetService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class TargetServiceImpl implements TargetService {
+    // Summary total column in MonthlyCentsTotals
+    private static final int TARGET = 0;
+    // One target per branch and period
+    private static final String UNIQUE_BRANCH_YEAR_MONTH = "uk_target_branch_year_month";
 
     private final TargetRepo targetRepo;
     private final BranchRepo branchRepo;
     private final UserRepo userRepo;
     private final ExcelUploadService excelUploadService;
-
-
-    public TargetServiceImpl(TargetRepo targetRepo, BranchRepo branchRepo, UserRepo userRepo, ExcelUploadService excelUploadService) {
+    private final BulkTargetWriter bulkTargetWriter;
+    private final BranchPerformanceService branchPerformanceService;
+    private final BranchPerformanceSnapshot branchPerformanceSnapshot;
+    private final ReportEngine reportEngine;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+
+    public TargetServiceImpl(TargetRepo targetRepo, BranchRepo branchRepo, UserRepo userRepo, ExcelUploadService excelUploadService,
+                             BulkTargetWriter bulkTargetWriter, BranchPerformanceService branchPerformanceService,
+                             BranchPerformanceSnapshot branchPerformanceSnapshot, ReportEngine reportEngine,
+                             @Value("${pagination.default-size:100}") int defaultPageSize,
+                             @Value("${pagination.max-size:500}") int maxPageSize) {
         this.targetRepo = targetRepo;
         this.branchRepo = branchRepo;
         this.userRepo = userRepo;
         this.excelUploadService = excelUploadService;
+        this.bulkTargetWriter = bulkTargetWriter;
+        this.branchPerformanceService = branchPerformanceService;
+        this.branchPerformanceSnapshot = branchPerformanceSnapshot;
+        this.reportEngine = reportEngine;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
+    // The write and its rollup refresh commit or roll back together
     @Override
+    @Transactional
     public TargetSaveResponseDTO saveTarget(TargetSaveRequestDTO targetSaveRequestDTO) {
         // Validation
         if (targetSaveRequestDTO.getTarget() == null || targetSaveRequestDTO.getTarget().compareTo(BigDecimal.ZERO) <= 0) {
@@ -54,17 +86,11 @@ public class TargetServiceImpl implements TargetService {
             return new TargetSaveResponseDTO(null, "Target month must be between 1 and 12");
         }
 
-        // Check if branch exists
-        BranchEntity branch = branchRepo.findById(targetSaveRequestDTO.getBranchId()).orElse(null);
-        if (branch == null) {
+        // Check if branch exists, the share lock keeps it from being deleted before this save commits
+        if (branchRepo.lockExistingIds(List.of(targetSaveRequestDTO.getBranchId())).isEmpty()) {
             return new TargetSaveResponseDTO(null, "Branch not found");
         }
-
-        // Check if target already exists for this branch, year, and month
-        if (targetRepo.existsByBranchAndTargetYearAndTargetMonth(branch, targetSaveRequestDTO.getTargetYear(), targetSaveRequestDTO.getTargetMonth())) {
-            return new TargetSaveResponseDTO(null, "Target already exists for this branch in " +
-                    getMonthName(targetSaveRequestDTO.getTargetMonth()) + " " + targetSaveRequestDTO.getTargetYear());
-        }
+        BranchEntity branch = branchRepo.getReferenceById(targetSaveRequestDTO.getBranchId());
 
         // Get current user
         UserEntity currentUser = getCurrentUser();
@@ -72,26 +98,34 @@ public class TargetServiceImpl implements TargetService {
             return new TargetSaveResponseDTO(null, "User not authenticated");
         }
 
-        try {
-            TargetEntity targetEntity = new TargetEntity(
-                    targetSaveRequestDTO.getTarget(),
-                    targetSaveRequestDTO.getTargetYear(),
-                    targetSaveRequestDTO.getTargetMonth(),
-                    branch,
-                    currentUser
-            );
+        TargetEntity targetEntity = new TargetEntity(
+                targetSaveRequestDTO.getTarget(),
+                targetSaveRequestDTO.getTargetYear(),
+                targetSaveRequestDTO.getTargetMonth(),
+                branch,
+                currentUser
+        );
 
+        try {
             targetRepo.save(targetEntity);
-            return new TargetSaveResponseDTO("Target saved successfully", null);
-        } catch (Exception e) {
-            return new TargetSaveResponseDTO(null, "Error saving target: " + e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // The insert itself is the duplicate check, any other integrity error goes back to the caller
+            if (!ConstraintViolations.isViolationOf(e, UNIQUE_BRANCH_YEAR_MONTH)) {
+                throw e;
+            }
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new TargetSaveResponseDTO(null, "Target already exists for this branch in " +
+                    getMonthName(targetSaveRequestDTO.getTargetMonth()) + " " + targetSaveRequestDTO.getTargetYear());
         }
+        branchPerformanceService.refresh(branch.getId(), targetEntity.getTargetYear(), targetEntity.getTargetMonth());
+        return new TargetSaveResponseDTO("Target saved successfully", null);
     }
 
 
 
 
     @Override
+    @Transactional
     public TargetSaveResponseDTO updateTarget(Long id, TargetUpdateRequestDTO targetUpdateRequestDTO) {
         // Validation
         if (targetUpdateRequestDTO.getTarget() == null || targetUpdateRequestDTO.getTarget().compareTo(BigDecimal.ZERO) <= 0) {
@@ -117,48 +151,63 @@ public class TargetServiceImpl implements TargetService {
             return new TargetSaveResponseDTO(null, "User not authenticated");
         }
 
+        // Remember the original period, the rollup row there has to be refreshed as well
+        Integer originalYear = existingTarget.getTargetYear();
+        Integer originalMonth = existingTarget.getTargetMonth();
+
+        existingTarget.setTarget(targetUpdateRequestDTO.getTarget());
+        if (targetUpdateRequestDTO.getTargetYear() != null) {
+            existingTarget.setTargetYear(targetUpdateRequestDTO.getTargetYear());
+        }
+        if (targetUpdateRequestDTO.getTargetMonth() != null) {
+            existingTarget.setTargetMonth(targetUpdateRequestDTO.getTargetMonth());
+        }
+        existingTarget.setModifyBy(currentUser);
+        existingTarget.setModifyDatetime(LocalDateTime.now());
+
         try {
-            existingTarget.setTarget(targetUpdateRequestDTO.getTarget());
-            if (targetUpdateRequestDTO.getTargetYear() != null) {
-                existingTarget.setTargetYear(targetUpdateRequestDTO.getTargetYear());
+            // Flushed here so a duplicate period fails at this call
+            targetRepo.saveAndFlush(existingTarget);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isViolationOf(e, UNIQUE_BRANCH_YEAR_MONTH)) {
+                throw e;
             }
-            if (targetUpdateRequestDTO.getTargetMonth() != null) {
-                existingTarget.setTargetMonth(targetUpdateRequestDTO.getTargetMonth());
-            }
-            existingTarget.setModifyBy(currentUser);
-            existingTarget.setModifyDatetime(LocalDateTime.now());
-
-            targetRepo.save(existingTarget);
-            return new TargetSaveResponseDTO("Target updated successfully", null);
-        } catch (Exception e) {
-            return new TargetSaveResponseDTO(null, "Error updating target: " + e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new TargetSaveResponseDTO(null, "Target already exists for this branch in " +
+                    getMonthName(existingTarget.getTargetMonth()) + " " + existingTarget.getTargetYear());
         }
+        refreshPerformance(existingTarget, originalYear, originalMonth);
+        return new TargetSaveResponseDTO("Target updated successfully", null);
     }
 
     @Override
+    @Transactional
     public void deleteTarget(Long id) {
-        if (!targetRepo.existsById(id)) {
-            throw new RuntimeException("Target not found");
-        }
+        TargetEntity target = targetRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Target not found"));
         try {
             targetRepo.deleteById(id);
+            branchPerformanceService.refresh(target.getBranch().getId(), target.getTargetYear(), target.getTargetMonth());
         } catch (Exception e) {
             throw new RuntimeException("Error deleting target: " + e.getMessage());
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getAllTargets() {
         return targetRepo.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TargetEntity getTargetById(Long id) {
         return targetRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Target not found with id: " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TargetEntity getTargetByBranchId(Long branchId) {
         List<TargetEntity> targets = targetRepo.findTargetsByBranchId(branchId);
         if (targets.isEmpty()) {
@@ -171,6 +220,7 @@ public class TargetServiceImpl implements TargetService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TargetEntity getTargetByBranchIdAndYearMonth(Long branchId, Integer year, Integer month) {
         return targetRepo.findByBranchIdAndYearAndMonth(branchId, year, month)
                 .orElseThrow(() -> new RuntimeException("Target not found for branch id: " + branchId +
@@ -178,190 +228,201 @@ public class TargetServiceImpl implements TargetService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getTargetsByBranchIdAndYear(Long branchId, Integer year) {
         return targetRepo.findByBranchIdAndYear(branchId, year);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getTargetsByRegionId(Long regionId) {
         return targetRepo.findByRegionId(regionId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getTargetsByRegionIdAndYearMonth(Long regionId, Integer year, Integer month) {
         return targetRepo.findByRegionIdAndYearAndMonth(regionId, year, month);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getTargetsByMinimumAmount(BigDecimal minimumAmount) {
         return targetRepo.findByTargetGreaterThanEqual(minimumAmount);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getTargetsByYear(Integer year) {
         return targetRepo.findByTargetYear(year);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TargetEntity> getTargetsByYearAndMonth(Integer year, Integer month) {
         return targetRepo.findByTargetYearAndTargetMonth(year, month);
     }
 
+    // Answered from the in-memory performance rollup
     @Override
     public BigDecimal getTotalTargetByRegion(Long regionId) {
-        BigDecimal total = targetRepo.getTotalTargetByRegion(regionId);
-        return total != null ? total : BigDecimal.ZERO;
+        return MonthlyCentsTotals.toAmount(branchPerformanceSnapshot.totalsByRegion(regionId, null, null).targetCents);
     }
 
+    // Answered from the in-memory performance rollup
     @Override
     public BigDecimal getTotalTargetByRegionAndYearMonth(Long regionId, Integer year, Integer month) {
-        BigDecimal total = targetRepo.getTotalTargetByRegionAndYearMonth(regionId, year, month);
-        return total != null ? total : BigDecimal.ZERO;
+        return MonthlyCentsTotals.toAmount(branchPerformanceSnapshot.totalsByRegion(regionId, year, month).targetCents);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MonthlyTargetSummaryDTO getMonthlyTargetSummary(Integer year, Integer month) {
         List<TargetEntity> targets = targetRepo.findByTargetYearAndTargetMonth(year, month);
         return createMonthlyTargetSummary(year, month, targets);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MonthlyTargetSummaryDTO getMonthlyTargetSummaryByRegion(Long regionId, Integer year, Integer month) {
         List<TargetEntity> targets = targetRepo.findByRegionIdAndYearAndMonth(regionId, year, month);
         return createMonthlyTargetSummary(year, month, targets);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public YearlyTargetSummaryDTO getYearlyTargetSummary(Integer year) {
         List<TargetEntity> targets = targetRepo.findByTargetYear(year);
         return createYearlyTargetSummary(year, targets);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public YearlyTargetSummaryDTO getYearlyTargetSummaryByRegion(Long regionId, Integer year) {
-        List<TargetEntity> targets = targetRepo.findByRegionId(regionId).stream()
-                .filter(t -> t.getTargetYear().equals(year))
-                .collect(Collectors.toList());
+        List<TargetEntity> targets = targetRepo.findByRegionIdAndYear(regionId, year);
         return createYearlyTargetSummary(year, targets);
     }
 
     @Override
+    @Transactional
     public void saveTargetsFromExcel(MultipartFile file, int year, int month) {
         if (!excelUploadService.isValidExcelFile(file)) {
             throw new IllegalArgumentException("Invalid Excel file format");
         }
 
-        try {
-            if(targetRepo.findByTargetYearAndTargetMonth(year, month).size() > 0) {
-                throw new IllegalArgumentException("Targets for " + getMonthName(month) + " " + year + " already exist. Please delete existing targets before uploading new ones.");
-            }else {
-                List<TargetEntity> targets = excelUploadService.getTargetsFromExcel(
-                        file.getInputStream(), year, month);
-                targetRepo.saveAll(targets);
-            }
+        if (!targetRepo.findByTargetYearAndTargetMonth(year, month).isEmpty()) {
+            throw new IllegalArgumentException("Targets for " + getMonthName(month) + " " + year + " already exist. Please delete existing targets before uploading new ones.");
+        }
+
+        // Rows are streamed from the sheet and saved chunk by chunk
+        try (InputStream inputStream = file.getInputStream()) {
+            excelUploadService.streamTargetsFromExcel(inputStream, year, month, this::insertChunk);
         } catch (IOException e) {
             throw new RuntimeException("Failed to process Excel file", e);
         }
+        branchPerformanceService.refreshMonth(year, month);
     }
 
     @Override
+    @Transactional
     public void updateTargetsFromExcel(MultipartFile file, int year, int month) {
         if (!excelUploadService.isValidExcelFile(file)) {
             throw new IllegalArgumentException("Invalid Excel file format");
         }
 
-        try {
-            // Check if targets exist for this year and month
-            List<TargetEntity> existingTargets = targetRepo.findByTargetYearAndTargetMonth(year, month);
-
-            if (existingTargets.isEmpty()) {
-                throw new IllegalArgumentException("No targets found for " + getMonthName(month) + " " + year + ". Please use save instead of update.");
-            }
-
-            // Get updated targets from Excel
-            List<TargetEntity> updatedTargets = excelUploadService.updateTargetsFromExcel(
-                    file.getInputStream(), year, month);
+        // Check if targets exist for this year and month
+        if (targetRepo.findByTargetYearAndTargetMonth(year, month).isEmpty()) {
+            throw new IllegalArgumentException("No targets found for " + getMonthName(month) + " " + year + ". Please use save instead of update.");
+        }
 
-            // Save the updated targets
-            targetRepo.saveAll(updatedTargets);
+        // Existing rows are preloaded for the update, so chunks stay managed until commit
+        try (InputStream inputStream = file.getInputStream()) {
+            excelUploadService.streamTargetUpdatesFromExcel(inputStream, year, month, targetRepo::saveAll);
         } catch (IOException e) {
             throw new RuntimeException("Failed to process Excel file", e);
         }
+        targetRepo.flush();
+        branchPerformanceService.refreshMonth(year, month);
     }
 
 
     @Override
-    public List<TargetResponseDTO> getAllTargetResponses() {
-        List<TargetEntity> targets = targetRepo.findAll();
-        return targets.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-    }
-
-    @Override
+    @Transactional(readOnly = true)
     public TargetResponseDTO getTargetResponseById(Long id) {
-        TargetEntity entity = getTargetById(id);
-        return convertToResponseDTO(entity);
+        return targetRepo.findResponseById(id)
+                .orElseThrow(() -> new RuntimeException("Target not found with id: " + id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TargetResponseDTO getTargetResponseByBranchId(Long branchId) {
-        TargetEntity entity = getTargetByBranchId(branchId);
-        return convertToResponseDTO(entity);
+        // Most recent target of the branch
+        List<TargetResponseDTO> latest = targetRepo.findLatestResponsesByBranchId(branchId, PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
+            throw new RuntimeException("Target not found for branch id: " + branchId);
+        }
+        return latest.get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TargetResponseDTO getTargetResponseByBranchIdAndYearMonth(Long branchId, Integer year, Integer month) {
-        TargetEntity entity = getTargetByBranchIdAndYearMonth(branchId, year, month);
-        return convertToResponseDTO(entity);
-    }
-
-    @Override
-    public List<TargetResponseDTO> getTargetResponsesByBranchIdAndYear(Long branchId, Integer year) {
-        List<TargetEntity> entities = getTargetsByBranchIdAndYear(branchId, year);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-    }
-
-    @Override
-    public List<TargetResponseDTO> getTargetResponsesByRegionId(Long regionId) {
-        List<TargetEntity> entities = getTargetsByRegionId(regionId);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return targetRepo.findResponseByBranchIdAndYearAndMonth(branchId, year, month)
+                .orElseThrow(() -> new RuntimeException("Target not found for branch id: " + branchId +
+                        " in " + getMonthName(month) + " " + year));
     }
 
     @Override
-    public List<TargetResponseDTO> getTargetResponsesByRegionIdAndYearMonth(Long regionId, Integer year, Integer month) {
-        List<TargetEntity> entities = getTargetsByRegionIdAndYearMonth(regionId, year, month);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TargetResponseDTO> getTargetResponsePage(Long branchId, Long regionId, Integer year, Integer month,
+                                                                  BigDecimal minAmount, Long afterId, Integer size) {
+        Slice<TargetResponseDTO> slice = findResponsePage(branchId, regionId, year, month, minAmount,
+                afterId == null ? 0L : afterId, PageRequest.of(0, pageSize(size)));
+        List<TargetResponseDTO> items = slice.getContent();
+        Long nextCursor = slice.hasNext() ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, slice.hasNext());
+    }
+
+    // Picks the query written for the filter combination, so no optional predicates end up in the SQL
+    private Slice<TargetResponseDTO> findResponsePage(Long branchId, Long regionId, Integer year, Integer month,
+                                                      BigDecimal minAmount, long afterId, PageRequest page) {
+        if (minAmount != null) {
+            if (branchId == null && regionId == null && year == null && month == null) {
+                return targetRepo.findResponsePageByMinAmount(minAmount, afterId, page);
+            }
+        } else if (branchId != null) {
+            if (regionId == null && year != null && month == null) {
+                return targetRepo.findResponsePageByBranchIdAndYear(branchId, year, afterId, page);
+            }
+        } else if (regionId != null) {
+            if (year == null && month == null) {
+                return targetRepo.findResponsePageByRegionId(regionId, afterId, page);
+            }
+            if (year != null && month != null) {
+                return targetRepo.findResponsePageByRegionIdAndYearAndMonth(regionId, year, month, afterId, page);
+            }
+        } else if (year != null) {
+            return month == null
+                    ? targetRepo.findResponsePageByYear(year, afterId, page)
+                    : targetRepo.findResponsePageByYearAndMonth(year, month, afterId, page);
+        } else if (month == null) {
+            return targetRepo.findResponsePage(afterId, page);
+        }
+        throw new IllegalArgumentException("Unsupported target filter combination");
     }
 
-    @Override
-    public List<TargetResponseDTO> getTargetResponsesByMinimumAmount(BigDecimal amount) {
-        List<TargetEntity> entities = getTargetsByMinimumAmount(amount);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    // Upload chunks check their branch ids against the table before the JDBC insert
+    private void insertChunk(List<TargetEntity> targets) {
+        BranchRows.lockExisting(branchRepo, targets.stream().map(target -> target.getBranch().getId()).toList());
+        bulkTargetWriter.insertAll(targets);
     }
 
-    @Override
-    public List<TargetResponseDTO> getTargetResponsesByYear(Integer year) {
-        List<TargetEntity> entities = getTargetsByYear(year);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-    }
-
-    @Override
-    public List<TargetResponseDTO> getTargetResponsesByYearAndMonth(Integer year, Integer month) {
-        List<TargetEntity> entities = getTargetsByYearAndMonth(year, month);
-        return entities.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    // Missing size falls back to the default, anything above the limit is capped
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
     }
 
     private TargetResponseDTO convertToResponseDTO(TargetEntity target) {
@@ -386,57 +447,82 @@ public class TargetServiceImpl implements TargetService {
     }
 
     private MonthlyTargetSummaryDTO createMonthlyTargetSummary(Integer year, Integer month, List<TargetEntity> targets) {
-        MonthlyTargetSummaryDTO summary = new MonthlyTargetSummaryDTO();
-        summary.setYear(year);
-        summary.setMonth(month);
-        summary.setBranchCount(targets.size());
-
-        BigDecimal totalTarget = targets.stream()
-                .map(TargetEntity::getTarget)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalTarget(totalTarget);
-
-        List<TargetResponseDTO> targetResponses = targets.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        summary.setTargets(targetResponses);
-
-        return summary;
+        MonthlyCentsTotals totals = new MonthlyCentsTotals(1);
+        List<TargetResponseDTO> targetResponses = new ArrayList<>(targets.size());
+        for (TargetEntity target : targets) {
+            addToTotals(totals, month, target);
+            targetResponses.add(convertToResponseDTO(target));
+        }
+        return toMonthlySummary(year, month, totals, targetResponses);
     }
 
     private YearlyTargetSummaryDTO createYearlyTargetSummary(Integer year, List<TargetEntity> targets) {
+        // Totals are folded on the report pool when the year is large, response rows need the
+        // persistence context so they are built here
+        MonthlyCentsTotals totals = reportEngine.aggregate(targets.size(), () -> new MonthlyCentsTotals(1),
+                (partial, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        TargetEntity target = targets.get(i);
+                        addToTotals(partial, target.getTargetMonth(), target);
+                    }
+                },
+                MonthlyCentsTotals::merge);
+        List<List<TargetResponseDTO>> monthlyResponses = new ArrayList<>(13);
+        for (int month = 0; month <= 12; month++) {
+            monthlyResponses.add(new ArrayList<>());
+        }
+        for (TargetEntity target : targets) {
+            monthlyResponses.get(target.getTargetMonth()).add(convertToResponseDTO(target));
+        }
+
         YearlyTargetSummaryDTO summary = new YearlyTargetSummaryDTO();
         summary.setYear(year);
+        summary.setTotalTarget(MonthlyCentsTotals.toAmount(totals.yearCents(TARGET)));
 
-        BigDecimal totalTarget = targets.stream()
-                .map(TargetEntity::getTarget)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalTarget(totalTarget);
-
-        // Group by month
-        Map<Integer, List<TargetEntity>> monthlyTargets = targets.stream()
-                .collect(Collectors.groupingBy(TargetEntity::getTargetMonth));
+        List<MonthlyTargetSummaryDTO> monthlyData = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            if (totals.rowCount(month) > 0) {
+                monthlyData.add(toMonthlySummary(year, month, totals, monthlyResponses.get(month)));
+            }
+        }
+        summary.setMonthlyData(monthlyData);
+        summary.setTotalBranches(totals.branchCount());
 
-        List<MonthlyTargetSummaryDTO> monthlyData = monthlyTargets.entrySet().stream()
-                .map(entry -> createMonthlyTargetSummary(year, entry.getKey(), entry.getValue()))
-                .sorted((a, b) -> a.getMonth().compareTo(b.getMonth()))
-                .collect(Collectors.toList());
+        return summary;
+    }
 
-        summary.setMonthlyData(monthlyData);
-        summary.setTotalBranches(targets.stream()
-                .collect(Collectors.groupingBy(t -> t.getBranch().getId()))
-                .size());
+    private void addToTotals(MonthlyCentsTotals totals, int month, TargetEntity target) {
+        totals.addRow(month, target.getBranch().getId());
+        totals.add(TARGET, month, target.getTarget());
+    }
 
+    private MonthlyTargetSummaryDTO toMonthlySummary(Integer year, int month, MonthlyCentsTotals totals,
+                                                     List<TargetResponseDTO> targetResponses) {
+        MonthlyTargetSummaryDTO summary = new MonthlyTargetSummaryDTO();
+        summary.setYear(year);
+        summary.setMonth(month);
+        summary.setBranchCount(totals.rowCount(month));
+        summary.setTotalTarget(MonthlyCentsTotals.toAmount(totals.monthCents(TARGET, month)));
+        summary.setTargets(targetResponses);
         return summary;
     }
 
+    private void refreshPerformance(TargetEntity target, Integer originalYear, Integer originalMonth) {
+        Long branchId = target.getBranch().getId();
+        branchPerformanceService.refresh(branchId, target.getTargetYear(), target.getTargetMonth());
+        if (!originalYear.equals(target.getTargetYear()) || !originalMonth.equals(target.getTargetMonth())) {
+            branchPerformanceService.refresh(branchId, originalYear, originalMonth);
+        }
+    }
+
     private UserEntity getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             return null;
         }
-        String username = authentication.getName();
-        return userRepo.findByUsername(username).orElse(null);
+        // Only the id is needed for the created_by/modify_by columns
+        return userRepo.getReferenceById(user.getId());
     }
 
     private String getMonthName(Integer month) {
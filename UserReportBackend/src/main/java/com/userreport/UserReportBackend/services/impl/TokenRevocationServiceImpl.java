@@ -0,0 +1,39 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.services.TokenRevocationService;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token versions per user. Login stamps the user's current version into the token ("ver" claim)
+ * and revoking bumps it, so every token issued before the revocation stops matching.
+ * Users that were never revoked share the startup version, which keeps the map down to revoked users only.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    private final long startupVersion = System.currentTimeMillis();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long currentVersion(Long userId) {
+        return versions.getOrDefault(userId, startupVersion);
+    }
+
+    @Override
+    public void revoke(Long userId) {
+        versions.merge(userId, startupVersion + 1, (current, ignored) -> current + 1);
+    }
+
+    @Override
+    public boolean isCurrent(Long userId, long version) {
+        return currentVersion(userId) == version;
+    }
+
+    // Versions are not persisted, so tokens from before a restart cannot be checked against this list
+    @Override
+    public boolean isIssuedBeforeStartup(long version) {
+        return version < startupVersion;
+    }
+}
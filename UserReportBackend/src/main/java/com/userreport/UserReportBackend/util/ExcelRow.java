@@ -0,0 +1,21 @@
+package com.userreport.UserReportBackend.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ExcelRow {
+    private final int rowNumber; // 1-based row number as shown in Excel
+    private final List<String> values; // Raw cell values indexed by column, null for empty cells
+
+    public String getValue(int columnIndex) {
+        return columnIndex < values.size() ? values.get(columnIndex) : null;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,165 @@
+package com.userreport.UserReportBackend.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads a single sheet of an .xlsx file with POI's SAX event API instead of building
+ * an XSSFWorkbook, so only one chunk of rows is held in memory at a time.
+ * The first non-empty row is treated as the header and skipped.
+ */
+public final class ExcelStreamReader {
+
+    private ExcelStreamReader() {
+    }
+
+    public static void readSheet(InputStream inputStream, String sheetName, int chunkSize,
+                                 Consumer<List<ExcelRow>> chunkConsumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than zero");
+        }
+
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(inputStream);
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName.equalsIgnoreCase(sheets.getSheetName())) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new SheetHandler(sharedStrings, chunkSize, chunkConsumer));
+                        parser.parse(new InputSource(sheet));
+                        return;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in Excel file");
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new RuntimeException("Failed to parse Excel file", e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert(); // Read-only use, close without writing anything back
+            }
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final int chunkSize;
+        private final Consumer<List<ExcelRow>> chunkConsumer;
+
+        private final StringBuilder value = new StringBuilder();
+        private List<ExcelRow> chunk;
+        private List<String> cells;
+        private int rowNumber;
+        private int columnIndex;
+        private String cellType;
+        private boolean readingValue;
+        private boolean headerSkipped;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, int chunkSize, Consumer<List<ExcelRow>> chunkConsumer) {
+            this.sharedStrings = sharedStrings;
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String ref = attributes.getValue("r");
+                    rowNumber = ref != null ? Integer.parseInt(ref) : rowNumber + 1;
+                    cells = new ArrayList<>();
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    columnIndex = ref != null ? new CellReference(ref).getCol() : cells.size();
+                    cellType = attributes.getValue("t");
+                    value.setLength(0);
+                }
+                case "v", "t" -> readingValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (readingValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> readingValue = false;
+                case "c" -> {
+                    while (cells.size() <= columnIndex) {
+                        cells.add(null);
+                    }
+                    cells.set(columnIndex, cellValue());
+                }
+                case "row" -> endRow();
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endDocument() {
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+        }
+
+        private String cellValue() {
+            if (value.isEmpty()) {
+                return null;
+            }
+            String raw = value.toString();
+            if ("s".equals(cellType)) {
+                return sharedStrings.getItemAt(Integer.parseInt(raw)).getString();
+            }
+            if ("b".equals(cellType)) {
+                return "1".equals(raw) ? "TRUE" : "FALSE";
+            }
+            return raw;
+        }
+
+        private void endRow() {
+            if (cells.stream().allMatch(cell -> cell == null || cell.isBlank())) {
+                return;
+            }
+            if (!headerSkipped) {
+                headerSkipped = true;
+                return;
+            }
+            chunk.add(new ExcelRow(rowNumber, cells));
+            if (chunk.size() >= chunkSize) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+    }
+}
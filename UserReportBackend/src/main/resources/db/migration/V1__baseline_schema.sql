@@ -0,0 +1,65 @@
+-- Schema as created by Hibernate ddl-auto before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id        BIGINT NOT NULL AUTO_INCREMENT,
+    name      VARCHAR(255),
+    email     VARCHAR(255),
+    username  VARCHAR(255),
+    password  VARCHAR(255),
+    role      ENUM ('ADMIN', 'USER'),
+    branch_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE mkt_sdb_region (
+    id       BIGINT      NOT NULL AUTO_INCREMENT,
+    rgn_name VARCHAR(45) NOT NULL,
+    rgn_des  VARCHAR(45) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE sdb_branch (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    brn_name          VARCHAR(45) NOT NULL,
+    brn_des           VARCHAR(45),
+    mkt_sdb_region_id BIGINT      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKd99df3sl6kqxerruvl8a40dcl FOREIGN KEY (mkt_sdb_region_id) REFERENCES mkt_sdb_region (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE sdb_target (
+    id               BIGINT         NOT NULL AUTO_INCREMENT,
+    target           DECIMAL(10, 2) NOT NULL,
+    target_year      INTEGER        NOT NULL,
+    target_month     INTEGER        NOT NULL,
+    sdb_branch_id    BIGINT         NOT NULL,
+    created_by       BIGINT         NOT NULL,
+    created_datetime DATETIME(6),
+    modify_by        BIGINT,
+    modify_datetime  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FKcrlxoe6kwxkencpavy0vhlipg FOREIGN KEY (sdb_branch_id) REFERENCES sdb_branch (id),
+    CONSTRAINT FKryt37oip8m0ncwbgkc92feaog FOREIGN KEY (created_by) REFERENCES users (id),
+    CONSTRAINT FKilx7fgfof4xk046wj0nua62pv FOREIGN KEY (modify_by) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE sdb_collection (
+    id               BIGINT  NOT NULL AUTO_INCREMENT,
+    target           DECIMAL(10, 2),
+    due              DECIMAL(10, 2),
+    collection       DECIMAL(10, 2),
+    percentage       DECIMAL(5, 2),
+    collection_year  INTEGER NOT NULL,
+    collection_month INTEGER NOT NULL,
+    sdb_branch_id    BIGINT  NOT NULL,
+    created_by       BIGINT  NOT NULL,
+    created_datetime DATETIME(6),
+    modify_by        BIGINT,
+    modify_datetime  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK8w6amoix264wm73yqdps0250e FOREIGN KEY (sdb_branch_id) REFERENCES sdb_branch (id),
+    CONSTRAINT FKekmiqyq4sk9ooei6o3t15qpmj FOREIGN KEY (created_by) REFERENCES users (id),
+    CONSTRAINT FKjm42xyjx8y007tvkbt3dp4jxa FOREIGN KEY (modify_by) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,19 @@
+-- Monthly rollup per branch (BranchPerformanceEntity). IF NOT EXISTS because baselined
+-- databases may already have it from ddl-auto; RollupConfig fills it when it is empty.
+
+CREATE TABLE IF NOT EXISTS sdb_branch_performance (
+    id                 BIGINT         NOT NULL AUTO_INCREMENT,
+    sdb_branch_id      BIGINT         NOT NULL,
+    mkt_sdb_region_id  BIGINT         NOT NULL,
+    perf_year          INTEGER        NOT NULL,
+    perf_month         INTEGER        NOT NULL,
+    target             DECIMAL(12, 2) NOT NULL,
+    collection         DECIMAL(12, 2) NOT NULL,
+    due                DECIMAL(12, 2) NOT NULL,
+    percentage         DECIMAL(7, 2)  NOT NULL,
+    refreshed_datetime DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_branch_performance_branch_year_month UNIQUE (sdb_branch_id, perf_year, perf_month),
+    CONSTRAINT FKin11sxonyfjedqpxv6ibccn9i FOREIGN KEY (sdb_branch_id) REFERENCES sdb_branch (id),
+    CONSTRAINT FKjsdgjvu47465gv8dmch40sa9n FOREIGN KEY (mkt_sdb_region_id) REFERENCES mkt_sdb_region (id)
+) ENGINE = InnoDB;
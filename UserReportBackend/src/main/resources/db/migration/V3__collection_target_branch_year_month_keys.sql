@@ -0,0 +1,41 @@
+-- One target and one collection per branch and month, plus year/month indexes for the
+-- month-wide lookups (uploads, dashboard). The unique keys also serve branch/year/month lookups.
+
+-- Older check-then-insert saves could race into duplicates. The most recent row of each branch/month is kept,
+-- the older ones are copied to *_duplicate_archive tables first so they can be reviewed (and restored by hand):
+--   SELECT * FROM sdb_target_duplicate_archive ORDER BY sdb_branch_id, target_year, target_month, id;
+-- Both archive tables stay empty when there were no duplicates.
+CREATE TABLE sdb_target_duplicate_archive LIKE sdb_target;
+
+INSERT INTO sdb_target_duplicate_archive
+SELECT t.* FROM sdb_target t
+WHERE EXISTS (SELECT 1 FROM sdb_target newer
+              WHERE newer.sdb_branch_id = t.sdb_branch_id AND newer.target_year = t.target_year
+                AND newer.target_month = t.target_month AND newer.id > t.id);
+
+DELETE t FROM sdb_target t
+    JOIN sdb_target newer ON newer.sdb_branch_id = t.sdb_branch_id
+        AND newer.target_year = t.target_year AND newer.target_month = t.target_month AND newer.id > t.id;
+
+CREATE TABLE sdb_collection_duplicate_archive LIKE sdb_collection;
+
+INSERT INTO sdb_collection_duplicate_archive
+SELECT c.* FROM sdb_collection c
+WHERE EXISTS (SELECT 1 FROM sdb_collection newer
+              WHERE newer.sdb_branch_id = c.sdb_branch_id AND newer.collection_year = c.collection_year
+                AND newer.collection_month = c.collection_month AND newer.id > c.id);
+
+DELETE c FROM sdb_collection c
+    JOIN sdb_collection newer ON newer.sdb_branch_id = c.sdb_branch_id
+        AND newer.collection_year = c.collection_year AND newer.collection_month = c.collection_month AND newer.id > c.id;
+
+ALTER TABLE sdb_target
+    ADD CONSTRAINT uk_target_branch_year_month UNIQUE (sdb_branch_id, target_year, target_month),
+    ADD INDEX idx_target_year_month (target_year, target_month);
+
+ALTER TABLE sdb_collection
+    ADD CONSTRAINT uk_collection_branch_year_month UNIQUE (sdb_branch_id, collection_year, collection_month),
+    ADD INDEX idx_collection_year_month (collection_year, collection_month);
+
+-- Totals summed duplicates, so let RollupConfig rebuild the rollup on the next startup
+DELETE FROM sdb_branch_performance;
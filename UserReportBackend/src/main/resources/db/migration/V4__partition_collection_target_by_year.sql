@@ -0,0 +1,62 @@
+-- RANGE partitioning of sdb_target and sdb_collection on their year column, so year-scoped
+-- queries only read the partitions of that year.
+--
+-- MySQL requirements for partitioned tables:
+--  * every unique key, the primary key included, must contain the partition column,
+--    so the primary key becomes (id, year); the branch/year/month keys already contain it
+--  * InnoDB partitioned tables cannot have foreign keys, so the branch and user foreign keys
+--    are dropped (their indexes stay).
+--
+-- Trade-off: the database no longer rejects a target/collection pointing at a missing branch or user,
+-- nor a branch/user delete that would leave rows behind. The application takes over those checks:
+--  * target/collection saves and Excel upload chunks share-lock their branch rows (BranchRepo.lockExistingIds)
+--    and fail on ids that no longer exist, as the foreign key check did
+--  * a branch delete takes the exclusive lock on the branch row, then refuses while targets or collections exist
+--  * a user delete refuses while the user created or modified targets or collections
+-- Writes made outside the application (manual SQL, imports) are not checked. Orphans can be listed with
+--   SELECT t.id FROM sdb_target t LEFT JOIN sdb_branch b ON b.id = t.sdb_branch_id WHERE b.id IS NULL;
+-- and the same query against sdb_collection.
+--
+-- p_future catches everything from 2029 on. Split it before that year starts, e.g.
+--   ALTER TABLE sdb_target REORGANIZE PARTITION p_future INTO
+--       (PARTITION p2029 VALUES LESS THAN (2030), PARTITION p_future VALUES LESS THAN MAXVALUE);
+
+ALTER TABLE sdb_target
+    DROP FOREIGN KEY FKcrlxoe6kwxkencpavy0vhlipg,
+    DROP FOREIGN KEY FKryt37oip8m0ncwbgkc92feaog,
+    DROP FOREIGN KEY FKilx7fgfof4xk046wj0nua62pv;
+
+ALTER TABLE sdb_target
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, target_year);
+
+ALTER TABLE sdb_target
+    PARTITION BY RANGE (target_year) (
+        PARTITION p_before_2024 VALUES LESS THAN (2024),
+        PARTITION p2024 VALUES LESS THAN (2025),
+        PARTITION p2025 VALUES LESS THAN (2026),
+        PARTITION p2026 VALUES LESS THAN (2027),
+        PARTITION p2027 VALUES LESS THAN (2028),
+        PARTITION p2028 VALUES LESS THAN (2029),
+        PARTITION p_future VALUES LESS THAN MAXVALUE
+    );
+
+ALTER TABLE sdb_collection
+    DROP FOREIGN KEY FK8w6amoix264wm73yqdps0250e,
+    DROP FOREIGN KEY FKekmiqyq4sk9ooei6o3t15qpmj,
+    DROP FOREIGN KEY FKjm42xyjx8y007tvkbt3dp4jxa;
+
+ALTER TABLE sdb_collection
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, collection_year);
+
+ALTER TABLE sdb_collection
+    PARTITION BY RANGE (collection_year) (
+        PARTITION p_before_2024 VALUES LESS THAN (2024),
+        PARTITION p2024 VALUES LESS THAN (2025),
+        PARTITION p2025 VALUES LESS THAN (2026),
+        PARTITION p2026 VALUES LESS THAN (2027),
+        PARTITION p2027 VALUES LESS THAN (2028),
+        PARTITION p2028 VALUES LESS THAN (2029),
+        PARTITION p_future VALUES LESS THAN MAXVALUE
+    );
@@ -0,0 +1,46 @@
+-- Percentage threshold alerts ("branches under 80% this month") are scoped to one year and month,
+-- so they become a range scan on (collection_year, collection_month, percentage).
+-- The new index starts with the columns of idx_collection_year_month, which is dropped.
+-- percentage is widened from DECIMAL(5,2), which failed above 999.99%, to the DECIMAL(7,2) of
+-- sdb_branch_performance; values are capped at 99999.99 (CollectionEntity.MAX_PERCENTAGE).
+
+ALTER TABLE sdb_collection
+    MODIFY percentage DECIMAL(7, 2),
+    ADD INDEX idx_collection_year_month_percentage (collection_year, collection_month, percentage),
+    DROP INDEX idx_collection_year_month;
+
+-- Due and percentage are now always derived the same way (CollectionEntity.applyAmounts):
+-- due = target - collection, percentage = 0 without a target. Older rows are brought in line.
+-- Semantics change: a row without a target used to have due 0, it now has due = -collection,
+-- as the rollup already had it.
+--
+-- The rewrite runs in batches of 5000 ids, each committed on its own, so it neither holds row locks on
+-- the whole history nor builds one large undo log. Rows already consistent are not written.
+DELIMITER //
+
+CREATE PROCEDURE v5_rederive_collection_amounts()
+BEGIN
+    DECLARE batch_start BIGINT DEFAULT 0;
+    DECLARE max_id BIGINT;
+
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM sdb_collection;
+
+    WHILE batch_start < max_id DO
+        UPDATE sdb_collection
+        SET due        = COALESCE(target, 0) - COALESCE(collection, 0),
+            percentage = CASE WHEN target > 0 THEN LEAST(ROUND(COALESCE(collection, 0) * 100 / target, 2), 99999.99) ELSE 0 END
+        WHERE id > batch_start AND id <= batch_start + 5000
+          AND NOT (due <=> COALESCE(target, 0) - COALESCE(collection, 0)
+              AND percentage <=> CASE WHEN target > 0
+                                      THEN LEAST(ROUND(COALESCE(collection, 0) * 100 / target, 2), 99999.99)
+                                      ELSE 0 END);
+        COMMIT;
+        SET batch_start = batch_start + 5000;
+    END WHILE;
+END //
+
+DELIMITER ;
+
+CALL v5_rederive_collection_amounts();
+
+DROP PROCEDURE v5_rederive_collection_amounts;
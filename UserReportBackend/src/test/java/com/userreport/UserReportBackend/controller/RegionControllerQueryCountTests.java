@@ -0,0 +1,96 @@
+package com.userreport.UserReportBackend.controller;
+
+import com.userreport.UserReportBackend.entity.BranchEntity;
+import com.userreport.UserReportBackend.entity.RegionEntity;
+import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.RegionRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Regions and branches come from the reference data cache, only the branch flags query hits the database.
+// Each test starts with the Spring caches and the second-level cache emptied, so the first call is a cold one.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RegionControllerQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RegionRepo regionRepo;
+    @Autowired
+    private BranchRepo branchRepo;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // Three regions with four branches each
+    @BeforeAll
+    void createData() {
+        for (int r = 1; r <= 3; r++) {
+            RegionEntity region = regionRepo.save(new RegionEntity("RC_REGION" + r, "Region " + r));
+            for (int b = 1; b <= 4; b++) {
+                branchRepo.save(new BranchEntity("RC_R" + r + "_B" + b, "Branch " + b, region));
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void summariesLoadRegionsAndBranchesOnceThenServeFromCache() throws Exception {
+        mockMvc.perform(get("/api/v1/regions/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/regions/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].totalBranches").value(4));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    // Cold: the regions and branches reference data plus the branch flags query, afterwards only the flags query
+    @Test
+    void allLoadsReferenceDataOnceThenRunsOnlyTheBranchFlagsQuery() throws Exception {
+        mockMvc.perform(get("/api/v1/regions/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/regions/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
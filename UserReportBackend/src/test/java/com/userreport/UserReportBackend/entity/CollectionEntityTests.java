@@ -0,0 +1,37 @@
+package com.userreport.UserReportBackend.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Due and percentage as stored by every write path and by the V5 rewrite
+class CollectionEntityTests {
+
+    @Test
+    void withoutTargetDueIsMinusCollection() {
+        CollectionEntity collection = new CollectionEntity();
+        collection.applyAmounts(null, new BigDecimal("250.00"));
+
+        assertEquals(new BigDecimal("-250.00"), collection.getDue());
+        assertEquals(BigDecimal.ZERO, collection.getPercentage());
+    }
+
+    @Test
+    void percentageAboveTheColumnRangeIsCapped() {
+        CollectionEntity collection = new CollectionEntity();
+        collection.applyAmounts(new BigDecimal("1.00"), new BigDecimal("5000.00"));
+
+        assertEquals(CollectionEntity.MAX_PERCENTAGE, collection.getPercentage());
+        assertEquals(new BigDecimal("-4999.00"), collection.getDue());
+    }
+
+    @Test
+    void percentageOverOneThousandIsKept() {
+        CollectionEntity collection = new CollectionEntity();
+        collection.applyAmounts(new BigDecimal("100.00"), new BigDecimal("1500.00"));
+
+        assertEquals(new BigDecimal("1500.00"), collection.getPercentage());
+    }
+}
@@ -0,0 +1,60 @@
+package com.userreport.UserReportBackend.services;
+
+import com.userreport.UserReportBackend.entity.BranchEntity;
+import com.userreport.UserReportBackend.entity.RegionEntity;
+import com.userreport.UserReportBackend.entity.Role;
+import com.userreport.UserReportBackend.entity.TargetEntity;
+import com.userreport.UserReportBackend.entity.UserEntity;
+import com.userreport.UserReportBackend.exception.ValidationException;
+import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.RegionRepo;
+import com.userreport.UserReportBackend.repository.TargetRepo;
+import com.userreport.UserReportBackend.repository.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// sdb_target/sdb_collection have no branch foreign key on MySQL (partitioned), the service refuses the orphaning delete
+@SpringBootTest
+@ActiveProfiles("test")
+class BranchIntegrityTests {
+
+    @Autowired
+    private BranchService branchService;
+    @Autowired
+    private RegionRepo regionRepo;
+    @Autowired
+    private BranchRepo branchRepo;
+    @Autowired
+    private TargetRepo targetRepo;
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void branchWithTargetsIsNotDeleted() {
+        RegionEntity region = regionRepo.save(new RegionEntity("BI_REGION_1", "Integrity region"));
+        BranchEntity branch = branchRepo.save(new BranchEntity("BI_B1", "Branch with a target", region));
+        UserEntity user = userRepo.save(new UserEntity("Branch", "Integrity", "bi_user", "password", Role.ADMIN));
+        targetRepo.save(new TargetEntity(new BigDecimal("100.00"), 2026, 1, branch, user));
+
+        assertThrows(ValidationException.class, () -> branchService.deleteBranch(branch.getId()));
+        assertTrue(branchRepo.existsById(branch.getId()));
+    }
+
+    @Test
+    void branchWithoutRowsIsDeleted() {
+        RegionEntity region = regionRepo.save(new RegionEntity("BI_REGION_2", "Integrity region"));
+        BranchEntity branch = branchRepo.save(new BranchEntity("BI_B2", "Empty branch", region));
+
+        branchService.deleteBranch(branch.getId());
+
+        assertFalse(branchRepo.existsById(branch.getId()));
+    }
+}
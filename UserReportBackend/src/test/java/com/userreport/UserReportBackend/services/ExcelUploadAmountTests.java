@@ -0,0 +1,81 @@
+package com.userreport.UserReportBackend.services;
+
+import com.userreport.UserReportBackend.entity.BranchEntity;
+import com.userreport.UserReportBackend.entity.RegionEntity;
+import com.userreport.UserReportBackend.entity.TargetEntity;
+import com.userreport.UserReportBackend.repository.BranchRepo;
+import com.userreport.UserReportBackend.repository.RegionRepo;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Numeric cells come out of the sheet as the double's text, amounts must still be stored with two decimals
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExcelUploadAmountTests {
+
+    @Autowired
+    private ExcelUploadService excelUploadService;
+    @Autowired
+    private RegionRepo regionRepo;
+    @Autowired
+    private BranchRepo branchRepo;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeAll
+    void createData() {
+        RegionEntity region = regionRepo.save(new RegionEntity("XU_REGION", "Upload region"));
+        branchRepo.save(new BranchEntity("XU_B1", "Branch 1", region));
+        branchRepo.save(new BranchEntity("XU_B2", "Branch 2", region));
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void floatArtifactAmountsAreRoundedToCents() throws IOException {
+        // 0.1 + 0.2 and 1.1 * 3 are written as 0.30000000000000004 and 3.3000000000000003
+        byte[] file = workbook("targets", 0.1 + 0.2, 1.1 * 3);
+
+        List<TargetEntity> targets = new ArrayList<>();
+        excelUploadService.streamTargetsFromExcel(new ByteArrayInputStream(file), 2026, 1, targets::addAll);
+
+        assertEquals(2, targets.size());
+        assertEquals(new BigDecimal("0.30"), targets.get(0).getTarget());
+        assertEquals(new BigDecimal("3.30"), targets.get(1).getTarget());
+        assertEquals(330, targets.get(1).getTarget().movePointRight(2).longValueExact());
+    }
+
+    private byte[] workbook(String sheetName, double first, double second) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet(sheetName);
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Branch");
+            header.createCell(1).setCellValue("Amount");
+            Row row1 = sheet.createRow(1);
+            row1.createCell(0).setCellValue("XU_B1");
+            row1.createCell(1).setCellValue(first);
+            Row row2 = sheet.createRow(2);
+            row2.createCell(0).setCellValue("XU_B2");
+            row2.createCell(1).setCellValue(second);
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.userreport.UserReportBackend.services;
+
+import com.userreport.UserReportBackend.dto.CursorPageDTO;
+import com.userreport.UserReportBackend.dto.branch.BranchResponseDTO;
+import com.userreport.UserReportBackend.dto.collection.CollectionResponseDTO;
+import com.userreport.UserReportBackend.dto.collection.YearlyCollectionSummaryDTO;
+import com.userreport.UserReportBackend.dto.target.YearlyTargetSummaryDTO;
+import com.userreport.UserReportBackend.entity.*;
+import com.userreport.UserReportBackend.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Region + year reads are filtered in the database: one statement however many years or regions exist.
+// Every count is taken on a cold first call, with the Spring caches and the second-level cache emptied.
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RegionYearQueryCountTests {
+
+    @Autowired
+    private RegionRepo regionRepo;
+    @Autowired
+    private BranchRepo branchRepo;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private TargetRepo targetRepo;
+    @Autowired
+    private CollectionRepo collectionRepo;
+    @Autowired
+    private CollectionService collectionService;
+    @Autowired
+    private TargetService targetService;
+    @Autowired
+    private BranchService branchService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long regionId;
+
+    // Three branches in each of two regions, with a target and a collection every month of 2024-2026
+    @BeforeAll
+    void createData() {
+        RegionEntity region = regionRepo.save(new RegionEntity("QC_REGION", "Query count region"));
+        RegionEntity otherRegion = regionRepo.save(new RegionEntity("QC_OTHER", "Query count other region"));
+        UserEntity user = userRepo.save(new UserEntity("Query", "Count", "qc_user", "password", Role.ADMIN));
+        regionId = (long) region.getId();
+
+        for (RegionEntity r : List.of(region, otherRegion)) {
+            for (int b = 1; b <= 3; b++) {
+                BranchEntity branch = branchRepo.save(new BranchEntity(r.getRgnName() + "_B" + b, "branch", r));
+                for (int year = 2024; year <= 2026; year++) {
+                    for (int month = 1; month <= 12; month++) {
+                        targetRepo.save(new TargetEntity(new BigDecimal("1000.00"), year, month, branch, user));
+                        collectionRepo.save(new CollectionEntity(new BigDecimal("1000.00"), new BigDecimal("750.00"),
+                                year, month, branch, user));
+                    }
+                }
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void coldCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void yearlyCollectionSummaryByRegionIsOneStatement() {
+        YearlyCollectionSummaryDTO summary = collectionService.getYearlyCollectionSummaryByRegion(regionId, 2025);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, new BigDecimal("27000.00").compareTo(summary.getTotalCollection()));
+    }
+
+    // What GET /api/v1/collections/region/{regionId}/year/{year} calls
+    @Test
+    void collectionResponsePageByRegionIdAndYearIsOneStatement() {
+        CursorPageDTO<CollectionResponseDTO> page = collectionService.getCollectionResponsePage(null, regionId, 2025, null, null, null, null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(36, page.getItems().size());
+    }
+
+    @Test
+    void yearlyTargetSummaryByRegionIsOneStatement() {
+        YearlyTargetSummaryDTO summary = targetService.getYearlyTargetSummaryByRegion(regionId, 2025);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, new BigDecimal("36000.00").compareTo(summary.getTotalTarget()));
+    }
+
+    // The region's branches lookup plus the batched latest target/collection queries, not one per branch
+    @Test
+    void branchResponsesByRegionIdIsThreeStatements() {
+        List<BranchResponseDTO> branches = branchService.getBranchResponsesByRegionId(regionId);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(3, branches.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.userreport.UserReportBackend.services.impl;
+
+import com.userreport.UserReportBackend.services.impl.BranchPerformanceSnapshot.Row;
+import com.userreport.UserReportBackend.services.impl.BranchPerformanceSnapshot.Scope;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Commit callbacks can run in any order, the snapshot must end up with the change that committed last
+class BranchPerformanceSnapshotTests {
+
+    private final BranchPerformanceSnapshot snapshot = new BranchPerformanceSnapshot(new ReportEngine(ForkJoinPool.commonPool(), 20000));
+
+    @Test
+    void olderRowChangeAppliedLastIsIgnored() {
+        long older = snapshot.begin();
+        long newer = snapshot.begin();
+
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "200.00")), newer);
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "100.00")), older);
+
+        List<Row> rows = snapshot.rows(2026, null);
+        assertEquals(1, rows.size());
+        assertEquals(20000, rows.get(0).targetCents);
+    }
+
+    @Test
+    void olderRowChangeDoesNotBringBackARemovedRow() {
+        long older = snapshot.begin();
+        long newer = snapshot.begin();
+
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(), newer);
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "100.00")), older);
+
+        assertTrue(snapshot.rows(2026, null).isEmpty());
+    }
+
+    @Test
+    void olderRowChangeDoesNotBringBackADeletedBranch() {
+        long older = snapshot.begin();
+        long newer = snapshot.begin();
+
+        snapshot.apply(Scope.branch(1), List.of(), newer);
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "100.00")), older);
+
+        assertTrue(snapshot.rows(2026, null).isEmpty());
+    }
+
+    @Test
+    void monthRebuildKeepsNewerRowsAndDropsOlderOnes() {
+        long olderRow = snapshot.begin();
+        long rebuild = snapshot.begin();
+        long newerRow = snapshot.begin();
+
+        snapshot.apply(Scope.row(2, 2026, 1), List.of(row(2, 10, 2026, 1, "300.00")), newerRow);
+        snapshot.apply(Scope.period(2026, 1),
+                List.of(row(1, 10, 2026, 1, "150.00"), row(2, 10, 2026, 1, "250.00")), rebuild);
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "100.00")), olderRow);
+
+        List<Row> rows = snapshot.rows(2026, null);
+        assertEquals(2, rows.size());
+        for (Row row : rows) {
+            assertEquals(row.branchId == 1 ? 15000 : 30000, row.targetCents);
+        }
+    }
+
+    @Test
+    void rolledBackChangeDoesNotHoldBackLaterOnes() {
+        long rolledBack = snapshot.begin();
+        long committed = snapshot.begin();
+
+        snapshot.abandon(rolledBack);
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "100.00")), committed);
+        long next = snapshot.begin();
+        snapshot.apply(Scope.row(1, 2026, 1), List.of(row(1, 10, 2026, 1, "120.00")), next);
+
+        assertEquals(12000, snapshot.rows(2026, null).get(0).targetCents);
+    }
+
+    private static Row row(long branchId, long regionId, int year, int month, String target) {
+        return new Row(branchId, regionId, year, month, new BigDecimal(target), BigDecimal.ZERO);
+    }
+}
@@ -6,6 +6,7 @@ import { RegionService, Region } from '../../services/region.service';
 import { BranchService, BranchResponse } from '../../services/branch.service';
 import { TargetService } from '../../services/target.service';
 import { CollectionService } from '../../services/collection.service';
+import { CursorPage } from '../../services/cursor-page';
 import { AuthService } from '../../services/auth.service';
 
 interface CollectionResponseDTO {
@@ -51,6 +52,11 @@ export class AnalyticsComponent implements OnInit {
   monthlyData: MonthlyData[] = [];
   loading = false;
   dataLoaded = false;
+
+  // Collections loaded so far for the current filters, the list endpoints return one keyset page per request
+  loadedCollections: CollectionResponseDTO[] = [];
+  nextCursor: number | null = null;
+  loadingMore = false;
   
   viewMode: 'regional' | 'branch' = 'regional';
   
@@ -207,7 +213,12 @@ export class AnalyticsComponent implements OnInit {
     this.loadAnalysisData('branch');
   }
 
-  loadAnalysisData(type: 'regional' | 'branch'): void {
+  loadAnalysisData(type: 'regional' | 'branch', after?: number): void {
+    if (after == null) {
+      this.loadedCollections = [];
+      this.nextCursor = null;
+    }
+
     // Check if we have a valid month (not null, not 'null' string, and not empty)
     const hasValidMonth = this.selectedMonth && 
                          this.selectedMonth !== 'null' && 
@@ -216,10 +227,10 @@ export class AnalyticsComponent implements OnInit {
     
     if (hasValidMonth) {
       // Load data for specific month
-      this.loadMonthlyData(type);
+      this.loadMonthlyData(type, after);
     } else {
       // Load data for entire year (All Months)
-      this.loadYearlyData(type);
+      this.loadYearlyData(type, after);
     }
   }
 
@@ -244,46 +255,69 @@ export class AnalyticsComponent implements OnInit {
     }
   }
 
-  loadMonthlyData(type: 'regional' | 'branch'): void {
+  loadMonthlyData(type: 'regional' | 'branch', after?: number): void {
     const monthValue = typeof this.selectedMonth === 'string' ? 
                       parseInt(this.selectedMonth) : 
                       this.selectedMonth!;
     
     const observable = type === 'regional' 
-      ? this.collectionService.getCollectionsByRegionYearMonth(this.selectedRegionId!, this.selectedYear, monthValue)
+      ? this.collectionService.getCollectionsByRegionYearMonth(this.selectedRegionId!, this.selectedYear, monthValue, after)
       : this.collectionService.getBranchCollectionsByYearMonth(this.selectedBranchId!, this.selectedYear, monthValue);
       
     observable.subscribe({
       next: (response: any) => {
         console.log('Monthly data response:', response); // Debug log
-        this.processMonthlyData(response);
+        this.processMonthlyData(this.addPage(response));
       },
       error: (error) => {
         console.error(`Error loading ${type} monthly data:`, error);
         this.loading = false;
+        this.loadingMore = false;
         this.resetAnalyticsData();
       }
     });
   }
 
-  loadYearlyData(type: 'regional' | 'branch'): void {
+  loadYearlyData(type: 'regional' | 'branch', after?: number): void {
     const observable = type === 'regional'
-      ? this.collectionService.getCollectionsByRegionYear(this.selectedRegionId!, this.selectedYear)
-      : this.collectionService.getBranchCollectionsByYear(this.selectedBranchId!, this.selectedYear);
+      ? this.collectionService.getCollectionsByRegionYear(this.selectedRegionId!, this.selectedYear, after)
+      : this.collectionService.getBranchCollectionsByYear(this.selectedBranchId!, this.selectedYear, after);
       
     observable.subscribe({
       next: (response: any) => {
         console.log('Yearly data response:', response); // Debug log
-        this.processYearlyData(response);
+        this.processYearlyData(this.addPage(response));
       },
       error: (error) => {
         console.error(`Error loading ${type} yearly data:`, error);
         this.loading = false;
+        this.loadingMore = false;
         this.resetAnalyticsData();
       }
     });
   }
 
+  // Loads the next page and recomputes the totals over everything loaded so far
+  loadMore(): void {
+    if (this.nextCursor == null || this.loadingMore) {
+      return;
+    }
+    this.loadingMore = true;
+    this.loadAnalysisData(this.viewMode, this.nextCursor);
+  }
+
+  // Appends a keyset page to the loaded collections, the single branch/month endpoint is not paged
+  private addPage(response: CursorPage<CollectionResponseDTO> | any): CollectionResponseDTO[] | any {
+    this.loadingMore = false;
+    if (response && Array.isArray(response.items)) {
+      this.loadedCollections = this.loadedCollections.concat(response.items);
+      this.nextCursor = response.hasMore ? response.nextCursor : null;
+      return this.loadedCollections;
+    }
+    this.nextCursor = null;
+    return response;
+  }
+
   processMonthlyData(collections: CollectionResponseDTO[] | CollectionResponseDTO | any): void {
     // Ensure collections is an array
     let collectionsArray: CollectionResponseDTO[] = [];
@@ -436,6 +470,8 @@ export class AnalyticsComponent implements OnInit {
     this.totalTarget = 0;
     this.totalCollection = 0;
     this.overallAchievement = 0;
+    this.loadedCollections = [];
+    this.nextCursor = null;
     this.clearChartData();
     this.loading = false;
     this.dataLoaded = false;
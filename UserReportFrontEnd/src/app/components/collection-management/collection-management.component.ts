@@ -497,9 +497,10 @@ export class CollectionManagementComponent implements OnInit {
   async onUploadCollectionExcel(data: {year: number, month: number, file: File}): Promise<void> {
     // First check if targets exist for this period
     try {
-      const existingTargets = await this.targetService.getTargetsByYearAndMonth(data.year, data.month).toPromise();
+      // One row is enough to know the month has targets
+      const existingTargets = await this.targetService.getTargetsByYearAndMonth(data.year, data.month, null, 1).toPromise();
       
-      if (!existingTargets || existingTargets.length === 0) {
+      if (!existingTargets || existingTargets.items.length === 0) {
         await Swal.fire({
           icon: 'error',
           title: 'No Targets Found',
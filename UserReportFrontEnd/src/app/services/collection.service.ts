@@ -2,6 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../environments/environments';
+import { CursorPage, pageParams } from './cursor-page';
 
 export interface Collection {
   id: number;
@@ -44,24 +45,24 @@ export class CollectionService {
     return this.http.post<any>(`${this.apiUrl}/create`, collection);
   }
 
-  getAllCollections(): Observable<Collection[]> {
-    return this.http.get<Collection[]>(`${this.apiUrl}/all`);
+  getAllCollections(after?: number | null, size?: number): Observable<CursorPage<Collection>> {
+    return this.http.get<CursorPage<Collection>>(`${this.apiUrl}/all`, { params: pageParams(after, size) });
   }
 
-  getCollectionsByRegion(regionId: number): Observable<Collection[]> {
-    return this.http.get<Collection[]>(`${this.apiUrl}/getCollectionsByRegionId/${regionId}`);
+  getCollectionsByRegion(regionId: number, after?: number | null, size?: number): Observable<CursorPage<Collection>> {
+    return this.http.get<CursorPage<Collection>>(`${this.apiUrl}/getCollectionsByRegionId/${regionId}`, { params: pageParams(after, size) });
   }
 
   getCollectionByBranchAndYearMonth(branchId: number, year: number, month: number): Observable<Collection> {
     return this.http.get<Collection>(`${this.apiUrl}/branch/${branchId}/year/${year}/month/${month}`);
   }
 
-  getCollectionsByYear(year: number): Observable<Collection[]> {
-    return this.http.get<Collection[]>(`${this.apiUrl}/year/${year}`);
+  getCollectionsByYear(year: number, after?: number | null, size?: number): Observable<CursorPage<Collection>> {
+    return this.http.get<CursorPage<Collection>>(`${this.apiUrl}/year/${year}`, { params: pageParams(after, size) });
   }
 
-  getCollectionsByYearAndMonth(year: number, month: number): Observable<Collection[]> {
-    return this.http.get<Collection[]>(`${this.apiUrl}/year/${year}/month/${month}`);
+  getCollectionsByYearAndMonth(year: number, month: number, after?: number | null, size?: number): Observable<CursorPage<Collection>> {
+    return this.http.get<CursorPage<Collection>>(`${this.apiUrl}/year/${year}/month/${month}`, { params: pageParams(after, size) });
   }
 
   updateCollection(id: number, collection: any): Observable<any> {
@@ -84,20 +85,20 @@ export class CollectionService {
     );
   }
 
-  getCollectionsByRegionYearMonth(regionId: number, year: number, month: number): Observable<any[]> {
-    return this.http.get<any[]>(`${this.apiUrl}/region/${regionId}/year/${year}/month/${month}`);
+  getCollectionsByRegionYearMonth(regionId: number, year: number, month: number, after?: number | null, size?: number): Observable<CursorPage<any>> {
+    return this.http.get<CursorPage<any>>(`${this.apiUrl}/region/${regionId}/year/${year}/month/${month}`, { params: pageParams(after, size) });
   }
 
-  getCollectionsByRegionYear(regionId: number, year: number): Observable<any[]> {
-    return this.http.get<any[]>(`${this.apiUrl}/region/${regionId}/year/${year}`);
+  getCollectionsByRegionYear(regionId: number, year: number, after?: number | null, size?: number): Observable<CursorPage<any>> {
+    return this.http.get<CursorPage<any>>(`${this.apiUrl}/region/${regionId}/year/${year}`, { params: pageParams(after, size) });
   }
 
   getBranchCollectionsByYearMonth(branchId: number, year: number, month: number): Observable<any[]> {
     return this.http.get<any[]>(`${this.apiUrl}/branch/${branchId}/year/${year}/month/${month}`);
   }
 
-  getBranchCollectionsByYear(branchId: number, year: number): Observable<any[]> {
-    return this.http.get<any[]>(`${this.apiUrl}/branch/${branchId}/year/${year}`);
+  getBranchCollectionsByYear(branchId: number, year: number, after?: number | null, size?: number): Observable<CursorPage<any>> {
+    return this.http.get<CursorPage<any>>(`${this.apiUrl}/branch/${branchId}/year/${year}`, { params: pageParams(after, size) });
   }
 
   updateExcelCollections(year: number, month: number, file: File): Observable<string> {
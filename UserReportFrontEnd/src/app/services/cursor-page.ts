@@ -0,0 +1,20 @@
+import { HttpParams } from '@angular/common/http';
+
+// One keyset page as returned by the collection/target list endpoints
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: number | null;
+  hasMore: boolean;
+}
+
+// Query parameters of a page request, the first page has no cursor and the backend picks the default size
+export function pageParams(after?: number | null, size?: number): HttpParams {
+  let params = new HttpParams();
+  if (after != null) {
+    params = params.set('after', after);
+  }
+  if (size != null) {
+    params = params.set('size', size);
+  }
+  return params;
+}
@@ -2,6 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../environments/environments';
+import { CursorPage, pageParams } from './cursor-page';
 
 export interface Target {
   id: number;
@@ -44,24 +45,24 @@ export class TargetService {
     return this.http.post<any>(`${this.apiUrl}/create`, target);
   }
 
-  getAllTargets(): Observable<Target[]> {
-    return this.http.get<Target[]>(`${this.apiUrl}/all`);
+  getAllTargets(after?: number | null, size?: number): Observable<CursorPage<Target>> {
+    return this.http.get<CursorPage<Target>>(`${this.apiUrl}/all`, { params: pageParams(after, size) });
   }
 
-  getTargetsByRegion(regionId: number): Observable<Target[]> {
-    return this.http.get<Target[]>(`${this.apiUrl}/region/${regionId}`);
+  getTargetsByRegion(regionId: number, after?: number | null, size?: number): Observable<CursorPage<Target>> {
+    return this.http.get<CursorPage<Target>>(`${this.apiUrl}/region/${regionId}`, { params: pageParams(after, size) });
   }
 
   getTargetsByBranchAndYearMonth(branchId: number, year: number, month: number): Observable<Target> {
     return this.http.get<Target>(`${this.apiUrl}/branch/${branchId}/year/${year}/month/${month}`);
   }
 
-  getTargetsByYear(year: number): Observable<Target[]> {
-    return this.http.get<Target[]>(`${this.apiUrl}/year/${year}`);
+  getTargetsByYear(year: number, after?: number | null, size?: number): Observable<CursorPage<Target>> {
+    return this.http.get<CursorPage<Target>>(`${this.apiUrl}/year/${year}`, { params: pageParams(after, size) });
   }
 
-  getTargetsByYearAndMonth(year: number, month: number): Observable<Target[]> {
-    return this.http.get<Target[]>(`${this.apiUrl}/year/${year}/month/${month}`);
+  getTargetsByYearAndMonth(year: number, month: number, after?: number | null, size?: number): Observable<CursorPage<Target>> {
+    return this.http.get<CursorPage<Target>>(`${this.apiUrl}/year/${year}/month/${month}`, { params: pageParams(after, size) });
   }
 
   getMonthlyTargetSummary(year: number, month: number): Observable<MonthlyTargetSummary> {